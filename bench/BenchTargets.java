@@ -0,0 +1,89 @@
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Bridge between the JMH benchmarks and the application classes.
+ *
+ * The application lives in the default package, which named packages cannot import,
+ * and JMH refuses benchmark classes in the default package. The benchmarks therefore
+ * load this class by name once per trial and work only with the java.util.function
+ * handles it returns, so the measured calls are plain interface calls.
+ */
+public final class BenchTargets {
+
+    private BenchTargets() { }
+
+    /**
+     * Builds the data snapshot for a directory: "csv" parses every CSV, "snapshot" goes through
+     * the precompiled {@link BinarySnapshot} (the first call compiles it).
+     */
+    public static Function<Path, Object> loader(String source) {
+        return "csv".equals(source) ? HRDataSnapshot::fromCsv : HRDataSnapshot::load;
+    }
+
+    /** The public name-based lookups of a retriever over {@code dataDir}, keyed by method name. */
+    public static Map<String, Function<String, String>> lookups(Path dataDir) {
+        DataRetriever r = new DataRetriever(dataDir);
+        Map<String, Function<String, String>> m = new LinkedHashMap<>();
+        m.put("getManager", r::getManager);
+        m.put("getLeaveBalance", r::getLeaveBalance);
+        m.put("getLeaveByType", name -> r.getLeaveByType(name, "tahunan"));
+        m.put("getEmployeeInfo", r::getEmployeeInfo);
+        m.put("getLeaveRequestStatus", r::getLeaveRequestStatus);
+        m.put("findEmployeeIdByPartialName", r::findEmployeeIdByPartialName);
+        m.put("findCandidates", name -> String.valueOf(r.findCandidates(name).size()));
+        return m;
+    }
+
+    /** {@code ActionExecutor.execute} over a retriever on {@code dataDir}. */
+    public static BiFunction<String, Map<String, String>, String> executor(Path dataDir) {
+        ActionExecutor executor = new ActionExecutor(new DataRetriever(dataDir));
+        return executor::execute;
+    }
+
+    /** The private {@code IntentClassifierGemini.parseLLMResponse}, returning the intent name. */
+    public static Function<String, String> llmResponseParser() {
+        try {
+            IntentClassifierGemini clf = new IntentClassifierGemini("http://127.0.0.1:1/");
+            Method m = IntentClassifierGemini.class.getDeclaredMethod("parseLLMResponse", String.class);
+            m.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflect(m).bindTo(clf);
+            return raw -> {
+                try {
+                    return ((IntentClassifierGemini.ParsedIntent) handle.invoke(raw)).intent;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Full {@code parse} against a fresh stub Gemini server; close the returned handle when done. */
+    public static StubParser stubParser(long latencyMs) throws Exception {
+        StubGeminiServer stub = new StubGeminiServer(0).withLatency(latencyMs, 0).start();
+        IntentClassifierGemini clf = new IntentClassifierGemini(stub.getEndpoint());
+        return new StubParser(stub, input -> clf.parse(input).intent);
+    }
+
+    public static final class StubParser implements AutoCloseable {
+        private final StubGeminiServer stub;
+        public final Function<String, String> parse;
+
+        StubParser(StubGeminiServer stub, Function<String, String> parse) {
+            this.stub = stub;
+            this.parse = parse;
+        }
+
+        @Override
+        public void close() {
+            stub.stop();
+        }
+    }
+}
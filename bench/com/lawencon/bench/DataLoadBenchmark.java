@@ -0,0 +1,42 @@
+package com.lawencon.bench;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.openjdk.jmh.annotations.*;
+
+/** Cost of building the data snapshot from scratch: CSV parse + indexes, or the precompiled binary snapshot. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DataLoadBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int employees;
+
+    @Param({"csv", "snapshot"})
+    String source;
+
+    private SyntheticData data;
+    private Function<Path, Object> loader;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        data = SyntheticData.create(employees);
+        loader = Targets.get("loader", source);
+        loader.apply(data.dir); // compiles the binary snapshot outside the measurement
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        data.delete();
+    }
+
+    @Benchmark
+    public Object load() {
+        return loader.apply(data.dir);
+    }
+}
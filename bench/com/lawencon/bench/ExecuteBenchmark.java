@@ -0,0 +1,49 @@
+package com.lawencon.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import org.openjdk.jmh.annotations.*;
+
+/** End-to-end ActionExecutor.execute for the read-only intents. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ExecuteBenchmark {
+
+    @Param({"1000", "100000"})
+    int employees;
+
+    @Param({"get_manager", "get_leave_balance", "get_employee_info", "check_leave_status", "lookup_colleague", "help"})
+    String intent;
+
+    private SyntheticData data;
+    private BiFunction<String, Map<String, String>, String> execute;
+    private List<Map<String, String>> entities;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        data = SyntheticData.create(employees);
+        execute = Targets.get("executor", data.dir);
+        String[] queries = data.queries(1024);
+        entities = new ArrayList<>(queries.length);
+        for (int i = 0; i < queries.length; i++)
+            entities.add(Map.of("name", queries[i], "type", i % 2 == 0 ? "tahunan" : ""));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        data.delete();
+    }
+
+    @Benchmark
+    public String execute() {
+        return execute.apply(intent, entities.get(next++ & 1023));
+    }
+}
@@ -0,0 +1,46 @@
+package com.lawencon.bench;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.openjdk.jmh.annotations.*;
+
+/** Each public name lookup of DataRetriever, over partial and full names. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LookupBenchmark {
+
+    @Param({"1000", "100000"})
+    int employees;
+
+    @Param({"getManager", "getLeaveBalance", "getLeaveByType", "getEmployeeInfo",
+            "getLeaveRequestStatus", "findEmployeeIdByPartialName", "findCandidates"})
+    String method;
+
+    private SyntheticData data;
+    private Function<String, String> lookup;
+    private String[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        data = SyntheticData.create(employees);
+        Map<String, Function<String, String>> lookups = Targets.get("lookups", data.dir);
+        lookup = lookups.get(method);
+        queries = data.queries(1024);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        data.delete();
+    }
+
+    @Benchmark
+    public String lookup() {
+        return lookup.apply(queries[next++ & 1023]);
+    }
+}
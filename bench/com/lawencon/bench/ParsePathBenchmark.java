@@ -0,0 +1,46 @@
+package com.lawencon.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Full IntentClassifierGemini.parse: local fast path versus a round trip to an embedded
+ * stub Gemini server (zero injected latency, classification cache disabled).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Dhr.cache.size=0", "-Dhr.gemini.rpm=0"})
+public class ParsePathBenchmark {
+
+    private AutoCloseable stub;
+    private Function<String, String> parse;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        Object handle = Targets.get("stubParser", 0L);
+        stub = (AutoCloseable) handle;
+        @SuppressWarnings("unchecked")
+        Function<String, String> p = (Function<String, String>) handle.getClass().getField("parse").get(handle);
+        parse = p;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        stub.close();
+    }
+
+    @Benchmark
+    public String localTemplate() {
+        return parse.apply("sisa cuti tahunan budi");
+    }
+
+    /** A phrasing no local template matches, so every call goes out to the stub. */
+    @Benchmark
+    public String geminiRoundTrip() {
+        return parse.apply("boleh tolong kasih tahu siapa yang jadi atasan budi sekarang");
+    }
+}
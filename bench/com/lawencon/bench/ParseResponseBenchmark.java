@@ -0,0 +1,38 @@
+package com.lawencon.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.openjdk.jmh.annotations.*;
+
+/** IntentClassifierGemini.parseLLMResponse on the reply shapes Gemini actually produces. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseResponseBenchmark {
+
+    @Param({"plain", "fenced", "prose"})
+    String shape;
+
+    private Function<String, String> parser;
+    private String response;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        parser = Targets.get("llmResponseParser");
+        String json = "{\"intent\":\"apply_leave\",\"name\":\"budi\",\"type\":\"sakit\","
+                + "\"start_date\":\"2025-10-03\",\"end_date\":\"2025-10-05\"}";
+        response = switch (shape) {
+            case "fenced" -> "```json\n" + json + "\n```\n";
+            case "prose" -> "Berikut hasil analisisnya:\n\n" + json + "\n\nSemoga membantu!";
+            default -> json;
+        };
+    }
+
+    @Benchmark
+    public String parse() {
+        return parser.apply(response);
+    }
+}
@@ -0,0 +1,116 @@
+package com.lawencon.bench;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Writes a deterministic data/ directory with the same CSV layout as the real one.
+ * Employees form a tree with fan-out 8; each has two leave balances and two leave requests.
+ */
+final class SyntheticData {
+
+    private static final String[] FIRST = {
+        "budi", "rina", "santi", "doni", "agus", "citra", "eko", "maya", "leo", "dewi",
+        "fajar", "hana", "gilang", "bella", "indra", "yuni", "rizky", "putri", "andi", "sari"
+    };
+    private static final String[] LAST = {
+        "santoso", "wijaya", "putri", "firmansyah", "setiawan", "lestari", "prasetyo", "sari",
+        "gunawan", "anggraini", "nugraha", "yulita", "ramadhan", "permata", "kusuma", "hidayat"
+    };
+    private static final String[] SYLLABLES = {"ka", "ri", "to", "na", "se", "la", "mu", "di", "pa", "wi", "jo", "re"};
+    private static final String[] DEPARTMENTS = {"Teknologi", "Produk", "Penjualan", "Pemasaran", "Sumber Daya Manusia", "Manajemen"};
+    private static final String[] TITLES = {"Software Engineer", "QA Engineer", "Product Manager", "Sales Executive", "HR Generalist", "Data Scientist"};
+
+    final Path dir;
+    final List<String> names = new ArrayList<>();
+
+    private SyntheticData(Path dir) {
+        this.dir = dir;
+    }
+
+    static SyntheticData create(int employees) throws IOException {
+        SyntheticData data = new SyntheticData(Files.createTempDirectory("hr-bench-" + employees + "-"));
+        data.write(employees);
+        return data;
+    }
+
+    /** Names to query: a mix of unique middle names, first names and full names. */
+    String[] queries(int count) {
+        Random rnd = new Random(7);
+        String[] q = new String[count];
+        for (int i = 0; i < count; i++) {
+            String[] parts = names.get(rnd.nextInt(names.size())).split(" ");
+            q[i] = switch (i % 3) {
+                case 0 -> parts[1];
+                case 1 -> parts[0] + " " + parts[1];
+                default -> String.join(" ", parts);
+            };
+        }
+        return q;
+    }
+
+    void delete() throws IOException {
+        try (var files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private void write(int employees) throws IOException {
+        Random rnd = new Random(42);
+        try (BufferedWriter emp = writer("employees.csv");
+             BufferedWriter bal = writer("leave_balances.csv");
+             BufferedWriter req = writer("leave_requests.csv");
+             BufferedWriter rev = writer("performance_reviews.csv")) {
+            emp.write("id,nama,email,jabatan,departemen,id_manajer,tanggal_bergabung,status_karyawan\n");
+            bal.write("id_karyawan,tipe_cuti,sisa_hari\n");
+            req.write("id_request,id_karyawan,tipe_cuti,tanggal_mulai,tanggal_selesai,status_request\n");
+            rev.write("id_review,id_karyawan,id_reviewer,tanggal_review,skor_performa,status_review\n");
+
+            for (int i = 0; i < employees; i++) {
+                int id = 100_000 + i;
+                String first = FIRST[rnd.nextInt(FIRST.length)];
+                String last = LAST[rnd.nextInt(LAST.length)];
+                String middle = middleName(i);
+                String name = capitalize(first) + " " + capitalize(middle) + " " + capitalize(last);
+                names.add(name.toLowerCase());
+
+                String manager = i == 0 ? "" : String.valueOf(100_000 + (i - 1) / 8);
+                emp.write(id + "," + name + "," + first + "." + middle + "@examplecorp.com,"
+                        + TITLES[i % TITLES.length] + "," + DEPARTMENTS[i % DEPARTMENTS.length] + ","
+                        + manager + "," + (1 + i % 12) + "/" + (1 + i % 28) + "/20" + (10 + i % 15) + ",Aktif\n");
+
+                bal.write(id + ",Tahunan," + rnd.nextInt(13) + "\n");
+                bal.write(id + ",Sakit," + rnd.nextInt(11) + "\n");
+
+                for (int r = 0; r < 2; r++) {
+                    int month = 1 + rnd.nextInt(12);
+                    int day = 1 + rnd.nextInt(25);
+                    req.write("LR" + (2 * i + r) + "," + id + "," + (r == 0 ? "Tahunan" : "Sakit") + ","
+                            + month + "/" + day + "/2025," + month + "/" + (day + 2) + "/2025,"
+                            + (rnd.nextBoolean() ? "Disetujui" : "Menunggu Persetujuan") + "\n");
+                }
+            }
+        }
+    }
+
+    /** Unique pronounceable token per employee ordinal. */
+    private static String middleName(int i) {
+        StringBuilder sb = new StringBuilder();
+        do {
+            sb.append(SYLLABLES[i % SYLLABLES.length]);
+            i /= SYLLABLES.length;
+        } while (i > 0);
+        return sb.length() < 4 ? sb.append("ra").toString() : sb.toString();
+    }
+
+    private static String capitalize(String s) {
+        return Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+
+    private BufferedWriter writer(String file) throws IOException {
+        return Files.newBufferedWriter(dir.resolve(file), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,22 @@
+package com.lawencon.bench;
+
+import java.lang.reflect.Method;
+
+/** Reflective access to the default-package {@code BenchTargets} bridge. */
+final class Targets {
+
+    private Targets() { }
+
+    @SuppressWarnings("unchecked")
+    static <T> T get(String factory, Object... args) {
+        try {
+            Class<?> bridge = Class.forName("BenchTargets");
+            for (Method m : bridge.getMethods())
+                if (m.getName().equals(factory) && m.getParameterCount() == args.length)
+                    return (T) m.invoke(null, args);
+            throw new IllegalArgumentException("No bridge method " + factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot reach BenchTargets." + factory, e);
+        }
+    }
+}
@@ -1,12 +1,155 @@
 import java.util.*;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ActionExecutor {
-    private final DataRetriever retriever = new DataRetriever();
-    private final HRFunctions hr = new RealHRFunctions();
+    /** Parts of one compound query executed at the same time, the calling thread included. */
+    private static final int FANOUT_PARALLELISM = Math.max(1, Integer.getInteger("hr.fanout.parallelism", 4));
+    private static final ExecutorService FANOUT = Threads.newThreadPerTaskExecutor();
+    /** Intents that write to the data files; see {@link #execute(IntentClassifierGemini.ParsedIntent, Speculation)}. */
+    private static final Set<String> MUTATING =
+            Set.of("apply_leave", "approve_leave", "cancel_leave", "schedule_review", "submit_expense");
+    /** Every intent {@link #dispatch} answers. */
+    static final Set<String> INTENTS = Set.of("get_manager", "get_leave_balance", "get_employee_info",
+            "apply_leave", "check_leave_status", "schedule_review", "submit_expense", "lookup_colleague",
+            "get_chain_of_command", "check_reporting_line", "count_reports", "list_subordinates",
+            "get_leave_request", "approve_leave", "cancel_leave", "leave_summary", "leave_exhausted",
+            "who_is_out", "team_coverage", "help");
+
+    private final DataRetriever retriever;
+    private final HRFunctions hr;
+
+    public ActionExecutor() {
+        this(DataRetriever.shared());
+    }
+
+    public ActionExecutor(DataRetriever retriever) {
+        this.retriever = retriever;
+        this.hr = new RealHRFunctions(retriever);
+    }
+
+    DataRetriever retriever() {
+        return retriever;
+    }
 
     public String execute(String intent, Map<String, String> entities) {
+        return execute(intent, entities, Speculation.NONE);
+    }
+
+    /** Like {@link #execute(String, Map)}, but answers from {@code speculation} when it rendered this request. */
+    public String execute(String intent, Map<String, String> entities, Speculation speculation) {
+        long started = System.nanoTime();
+        try {
+            String prefetched = speculation.answer(intent, entities, retriever.snapshot());
+            return prefetched != null ? prefetched : dispatch(intent, entities);
+        } finally {
+            Metrics.get().recordSince("execute", metricIntent(intent), started);
+        }
+    }
+
+    /**
+     * The intent to key metrics on: {@code intent} when it is one of {@link #INTENTS}, else
+     * "unknown", so intents the LLM makes up cannot register a new histogram each.
+     */
+    static String metricIntent(String intent) {
+        return INTENTS.contains(intent) ? intent : "unknown";
+    }
+
+    /**
+     * Executes a classified query. The read-only parts of a compound query run in parallel,
+     * at most {@code hr.fanout.parallelism} at a time, and their answers come back in
+     * question order. Parts that change data ({@link #MUTATING}) run one at a time in
+     * question order, each after the parts asked before it and before the ones asked after,
+     * so "ajukan cuti budi lalu cek status cutinya" reads the new request and two approvals
+     * never race. Each fan-out is scoped to this call: it returns only after every part has
+     * finished, and a failing part stops the ones not yet started before the failure is
+     * rethrown.
+     */
+    public String execute(IntentClassifierGemini.ParsedIntent parsed, Speculation speculation) {
+        if (!parsed.isCompound()) return execute(parsed.intent, parsed.entities, speculation);
+
+        List<IntentClassifierGemini.ParsedIntent> parts = parsed.parts;
+        String[] answers = new String[parts.size()];
+        long started = System.nanoTime();
+        for (int from = 0; from < parts.size(); ) {
+            if (isMutating(parts.get(from))) {
+                answers[from] = execute(parts.get(from), speculation);
+                from++;
+                continue;
+            }
+            int to = from + 1;
+            while (to < parts.size() && !isMutating(parts.get(to))) to++;
+            fanOut(parts, from, to, answers, speculation);
+            from = to;
+        }
+        Metrics.get().recordSize("fanout.parts", answers.length);
+        Metrics.get().recordSince("fanout", null, started);
+
+        StringJoiner merged = new StringJoiner("\n\n");
+        for (String a : answers) merged.add(a == null ? "" : a.strip());
+        return merged.toString();
+    }
+
+    /** Runs parts [from, to) in parallel, the calling thread included, into {@code answers}. */
+    private void fanOut(List<IntentClassifierGemini.ParsedIntent> parts, int from, int to,
+                        String[] answers, Speculation speculation) {
+        AtomicInteger next = new AtomicInteger(from);
+        Runnable worker = () -> {
+            for (int i; (i = next.getAndIncrement()) < to; ) {
+                try {
+                    answers[i] = execute(parts.get(i), speculation);
+                } catch (RuntimeException e) {
+                    next.set(to);
+                    throw e;
+                }
+            }
+        };
+
+        List<Future<?>> forks = new ArrayList<>();
+        for (int w = 1; w < Math.min(FANOUT_PARALLELISM, to - from); w++) forks.add(FANOUT.submit(worker));
+        RuntimeException failure = null;
+        try {
+            worker.run();
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        for (Future<?> fork : forks) {
+            try {
+                fork.get();
+            } catch (ExecutionException e) {
+                if (failure == null)
+                    failure = e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                next.set(to);
+                forks.forEach(f -> f.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new CancellationException("eksekusi dihentikan");
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    private static boolean isMutating(IntentClassifierGemini.ParsedIntent parsed) {
+        return parsed.isCompound()
+                ? parsed.parts.stream().anyMatch(ActionExecutor::isMutating)
+                : MUTATING.contains(parsed.intent);
+    }
+
+    /**
+     * Starts rendering the read-only answers {@code input} most likely asks for, to overlap
+     * them with the LLM call; hand the result to {@link #execute(String, Map, Speculation)}.
+     */
+    public Speculation speculate(String input) {
+        return Speculation.start(input, retriever, this::dispatch);
+    }
+
+    private String dispatch(String intent, Map<String, String> entities) {
         switch (intent) {
             case "get_manager":
                 return retriever.getManager(entities.getOrDefault("name", ""));
@@ -19,13 +162,37 @@ public class ActionExecutor {
             case "apply_leave":
                 return handleApplyLeave(entities);
             case "check_leave_status":
-                return hr.checkLeaveRequestStatus(capitalize(entities.getOrDefault("name", "")));
+                return hr.checkLeaveRequestStatus(entities.getOrDefault("name", ""));
             case "schedule_review":
                 return handleScheduleReview(entities);
             case "submit_expense":
                 return handleSubmitExpense(entities);
             case "lookup_colleague":
-                return hr.lookupColleagueInfo(capitalize(entities.getOrDefault("name", "")));
+                return hr.lookupColleagueInfo(entities.getOrDefault("name", ""));
+            case "get_chain_of_command":
+                return retriever.getChainOfCommand(entities.getOrDefault("name", ""));
+            case "check_reporting_line":
+                return retriever.checkReportingLine(entities.getOrDefault("name", ""), entities.getOrDefault("manager", ""));
+            case "count_reports":
+                return retriever.getReportCounts(entities.getOrDefault("name", ""));
+            case "list_subordinates":
+                return retriever.getSubordinates(entities.getOrDefault("name", ""));
+            case "get_leave_request":
+                return retriever.getLeaveRequest(entities.getOrDefault("request_id", ""));
+            case "approve_leave":
+                return retriever.approveLeaveRequest(entities.getOrDefault("request_id", ""));
+            case "cancel_leave":
+                return retriever.cancelLeaveRequest(entities.getOrDefault("request_id", ""));
+            case "leave_summary":
+                return retriever.getLeaveSummary(entities.getOrDefault("type", ""),
+                        entities.getOrDefault("department", ""), entities.getOrDefault("manager", ""));
+            case "leave_exhausted":
+                return retriever.getExhaustedLeave(entities.getOrDefault("type", "tahunan"),
+                        entities.getOrDefault("department", ""), entities.getOrDefault("manager", ""));
+            case "who_is_out":
+                return handleAvailability(entities, false);
+            case "team_coverage":
+                return handleAvailability(entities, true);
             case "help":
                 return showHelp();
             default:
@@ -45,7 +212,7 @@ public class ActionExecutor {
         try {
             LocalDate startDate = LocalDate.parse(start);
             LocalDate endDate = LocalDate.parse(end);
-            return hr.applyForLeave(capitalize(name), capitalize(type), startDate, endDate);
+            return hr.applyForLeave(retriever.displayName(name), retriever.leaveTypeName(type), startDate, endDate);
         } catch (DateTimeParseException e) {
             return "Format tanggal tidak valid. Gunakan format YYYY-MM-DD.";
         }
@@ -61,7 +228,7 @@ public class ActionExecutor {
 
         try {
             LocalDate reviewDate = LocalDate.parse(date);
-            return hr.schedulePerformanceReview(capitalize(name), capitalize(reviewer), reviewDate);
+            return hr.schedulePerformanceReview(retriever.displayName(name), retriever.displayName(reviewer), reviewDate);
         } catch (DateTimeParseException e) {
             return "Format tanggal tidak valid. Gunakan format YYYY-MM-DD.";
         }
@@ -79,7 +246,58 @@ public class ActionExecutor {
             return "Nominal pengeluaran tidak valid.";
         }
 
-        return hr.submitExpenseReport(capitalize(name), category, amount);
+        return hr.submitExpenseReport(retriever.displayName(name), category, amount);
+    }
+
+    // === AVAILABILITY ===
+    private String handleAvailability(Map<String, String> entities, boolean coverage) {
+        LocalDate[] period;
+        try {
+            period = period(entities, LocalDate.now());
+        } catch (DateTimeParseException e) {
+            return "Format tanggal tidak valid. Gunakan format YYYY-MM-DD.";
+        }
+        if (period == null)
+            return "Periode \"" + entities.get("period") + "\" tidak dikenal. Gunakan hari ini, besok, lusa, "
+                    + "minggu ini, minggu depan, bulan ini, bulan depan atau tanggal YYYY-MM-DD.";
+
+        String department = entities.getOrDefault("department", "");
+        String manager = entities.getOrDefault("manager", "");
+        return coverage
+                ? retriever.getTeamCoverage(period[0], period[1], department, manager)
+                : retriever.getWhoIsOut(period[0], period[1], department, manager);
+    }
+
+    /**
+     * [from, to] of a date, a start_date/end_date pair or a relative period such as "minggu
+     * depan" (weeks start on Monday), resolved against {@code today}; today when none is
+     * given, null for a period it does not know. Relative periods are resolved here rather
+     * than by the classifier so cached classifications stay valid from one day to the next.
+     */
+    static LocalDate[] period(Map<String, String> entities, LocalDate today) {
+        String date = entities.getOrDefault("date", "");
+        if (!date.isEmpty()) {
+            LocalDate day = LocalDate.parse(date);
+            return new LocalDate[]{day, day};
+        }
+        String start = entities.getOrDefault("start_date", "");
+        if (!start.isEmpty()) {
+            String end = entities.getOrDefault("end_date", "");
+            return new LocalDate[]{LocalDate.parse(start), LocalDate.parse(end.isEmpty() ? start : end)};
+        }
+
+        LocalDate monday = today.with(DayOfWeek.MONDAY);
+        LocalDate firstOfMonth = today.withDayOfMonth(1);
+        return switch (entities.getOrDefault("period", "hari ini").trim().toLowerCase(Locale.ROOT)) {
+            case "", "hari ini", "sekarang" -> new LocalDate[]{today, today};
+            case "besok" -> new LocalDate[]{today.plusDays(1), today.plusDays(1)};
+            case "lusa" -> new LocalDate[]{today.plusDays(2), today.plusDays(2)};
+            case "minggu ini", "pekan ini" -> new LocalDate[]{monday, monday.plusDays(6)};
+            case "minggu depan", "pekan depan" -> new LocalDate[]{monday.plusWeeks(1), monday.plusWeeks(1).plusDays(6)};
+            case "bulan ini" -> new LocalDate[]{firstOfMonth, firstOfMonth.plusMonths(1).minusDays(1)};
+            case "bulan depan" -> new LocalDate[]{firstOfMonth.plusMonths(1), firstOfMonth.plusMonths(2).minusDays(1)};
+            default -> null;
+        };
     }
 
     // === HELP ===
@@ -92,19 +310,22 @@ public class ActionExecutor {
         - info <nama>
         - ajukan cuti <nama> dari <tanggal> sampai <tanggal>
         - cek status cuti <nama>
+        - cek pengajuan <id> (contoh: cek pengajuan LR003)
+        - setujui pengajuan <id>
+        - batalkan pengajuan <id>
         - jadwalkan review performa <nama> dengan <reviewer> pada <tanggal>
         - ajukan expense <nama> <kategori> <nominal>
         - cari info rekan <nama>
+        - rantai atasan <nama>
+        - apakah <nama> bawahan <manajer>
+        - berapa bawahan <nama>
+        - daftar bawahan <nama>
+        - total sisa cuti tahunan per departemen / rekap cuti <departemen> / rekap cuti tim <nama>
+        - siapa di <departemen> yang cutinya habis / siapa di tim <nama> yang cuti sakitnya habis
+        - siapa yang cuti hari ini / siapa di <departemen> yang cuti minggu depan / siapa di tim <nama> yang cuti <tanggal>
+        - kehadiran tim <nama> <tanggal> / kehadiran <departemen> minggu ini
+        - gabungkan beberapa permintaan: sisa cuti budi, rina dan eko / info budi lalu siapa manajernya
         - exit → keluar dari aplikasi
         """;
     }
-
-    private String capitalize(String str) {
-        if (str == null || str.isEmpty()) return str;
-        String[] words = str.split("\\s+");
-        StringBuilder sb = new StringBuilder();
-        for (String w : words)
-            sb.append(Character.toUpperCase(w.charAt(0))).append(w.substring(1).toLowerCase()).append(" ");
-        return sb.toString().trim();
-    }
 }
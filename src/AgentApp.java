@@ -1,9 +1,49 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Scanner;
 
 public class AgentApp {
     public static void main(String[] args) {
-        IntentClassifierGemini clf = new IntentClassifierGemini();
-        ActionExecutor executor = new ActionExecutor();
+        // batch results are JSON lines on stdout; every diagnostic printed on the way goes to stderr
+        PrintStream results = System.out;
+        if (optionValue(args, "--batch=", null) != null) System.setOut(System.err);
+
+        IntentClassifierGemini clf = new IntentClassifierGemini(DataRetriever.shared());
+
+        // --watch (or -Dhr.watch=true) reloads data/ and loaded tenants whenever a CSV changes on disk
+        boolean watch = Arrays.asList(args).contains("--watch") || Boolean.getBoolean("hr.watch");
+        if (watch) DataRetriever.shared().startWatching();
+        Tenants tenants = new Tenants(new ActionExecutor(), watch);
+
+        // --record=<file> logs every query, its classification, answer and timings for ReplayTool
+        String recordTo = optionValue(args, "--record=", System.getProperty("hr.record"));
+        SessionRecorder recorder = recordTo == null || recordTo.isBlank() ? null : new SessionRecorder(Paths.get(recordTo));
+
+        // --tenant=<name> answers from tenants/<name>/ instead of data/
+        ActionExecutor executor;
+        try {
+            // held until exit: the CLI keeps using this tenant
+            executor = tenants.acquire(optionValue(args, "--tenant=", Tenants.DEFAULT)).executor();
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+
+        // --batch=<file|-> classifies and executes a file of queries, one per line
+        for (String arg : args) {
+            if (arg.startsWith("--batch=")) {
+                runBatch(clf, executor, arg.substring("--batch=".length()), args, results);
+                return;
+            }
+        }
+
+        // --server runs the HTTP endpoint instead of the interactive loop
+        if (Arrays.asList(args).contains("--server")) {
+            runServer(clf, tenants, recorder, args);
+            return;
+        }
         Scanner sc = new Scanner(System.in);
 
         // --- Greeting section ---
@@ -38,26 +78,79 @@ public class AgentApp {
                     - ajukan cuti sakit buat rina tanggal 3 okt sampai 5 okt
                     - jadwalkan review performa untuk rina dengan bu santi
                     - info budi
+                    - sisa cuti budi, rina dan eko
+                    - info budi lalu siapa manajernya
+                    - metrics (statistik latensi per tahap)
                     """);
                 continue;
             }
 
+            // --- Metrics dump ---
+            if (input.equalsIgnoreCase("metrics")) {
+                System.out.println(Metrics.get().dump());
+                continue;
+            }
+
             // --- Empty input handling ---
             if (input.isBlank()) {
                 System.out.println("Oops, sepertinya Kamu belum ngetik apa-apa\n");
                 continue;
             }
 
-            // --- Intent classification ---
-            var parsed = clf.parse(input);
+            // --- Intent classification (prerendering likely answers while Gemini works) ---
+            long started = System.nanoTime();
+            var pending = clf.parseAsync(input);
+            Speculation speculation = pending.isDone() ? Speculation.NONE : executor.speculate(input);
+            var parsed = pending.join();
+            long classified = System.nanoTime();
 
             // --- Execution ---
-            String result = executor.execute(parsed.intent, parsed.entities);
+            String result = executor.execute(parsed, speculation);
+            if (recorder != null)
+                recorder.record(null, input, parsed, result, classified - started, System.nanoTime() - classified);
 
             // --- Output ---
             System.out.println(result + "\n");
         }
 
         sc.close();
+        if (recorder != null) recorder.close();
+    }
+
+    private static void runBatch(IntentClassifierGemini clf, ActionExecutor executor, String source, String[] args,
+                                 PrintStream results) {
+        int batchSize = Integer.getInteger("hr.batch.size", 20);
+        for (String arg : args)
+            if (arg.startsWith("--batch-size=")) batchSize = Integer.parseInt(arg.substring("--batch-size=".length()));
+
+        try {
+            new BatchRunner(clf, executor, batchSize).run(source, results);
+        } catch (IOException e) {
+            System.out.println("Gagal membaca file batch: " + e.getMessage());
+        }
+    }
+
+    private static void runServer(IntentClassifierGemini clf, Tenants tenants, SessionRecorder recorder,
+                                  String[] args) {
+        int port = Integer.getInteger("hr.server.port", 8080);
+        int maxConcurrent = Integer.getInteger("hr.server.maxConcurrent", 64);
+        for (String arg : args) {
+            if (arg.startsWith("--port=")) port = Integer.parseInt(arg.substring("--port=".length()));
+            if (arg.startsWith("--max-concurrent=")) maxConcurrent = Integer.parseInt(arg.substring("--max-concurrent=".length()));
+        }
+
+        try {
+            AgentServer server = new AgentServer(clf, tenants, port, maxConcurrent).withRecorder(recorder);
+            Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+            server.start();
+        } catch (IOException e) {
+            System.out.println("Gagal menjalankan server: " + e.getMessage());
+        }
+    }
+
+    private static String optionValue(String[] args, String prefix, String fallback) {
+        for (String arg : args)
+            if (arg.startsWith(prefix)) return arg.substring(prefix.length());
+        return fallback;
     }
 }
@@ -0,0 +1,184 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * JSON HTTP front end for the agent.
+ *
+ * POST /query  {"input": "siapa manajer rina", "tenant": "anak-usaha-a"}
+ *   → {"intent": "get_manager", "entities": {...}, "result": "..."}
+ *   ("tenant", or an X-Tenant header, picks a dataset from {@link Tenants}; omit it for data/)
+ * GET  /health → {"status": "ok"}
+ * GET  /metrics → text dump of {@link Metrics}
+ *
+ * Every exchange runs on its own (virtual, when the runtime supports it) thread and
+ * shares one classifier and the executor of its tenant. At most {@code maxConcurrent} queries are
+ * processed at once; the rest wait briefly and are then rejected with 503.
+ */
+public class AgentServer {
+
+    private static final long ACQUIRE_TIMEOUT_MILLIS = 2000;
+
+    private final IntentClassifierGemini clf;
+    private final Tenants tenants;
+    private final Semaphore permits;
+    private final HttpServer server;
+    private final ExecutorService threads;
+    private volatile SessionRecorder recorder;
+
+    public AgentServer(IntentClassifierGemini clf, ActionExecutor executor, int port, int maxConcurrent)
+            throws IOException {
+        this(clf, new Tenants(executor, false), port, maxConcurrent);
+    }
+
+    public AgentServer(IntentClassifierGemini clf, Tenants tenants, int port, int maxConcurrent)
+            throws IOException {
+        this.clf = clf;
+        this.tenants = tenants;
+        this.permits = new Semaphore(maxConcurrent);
+        this.threads = Threads.newThreadPerTaskExecutor();
+        this.server = newHttpServer(new InetSocketAddress(port));
+        this.server.setExecutor(threads);
+        this.server.createContext("/query", this::handleQuery);
+        this.server.createContext("/health", this::handleHealth);
+        this.server.createContext("/metrics", this::handleMetrics);
+    }
+
+    /** Logs every answered query to {@code recorder}; it is closed with the server. */
+    public AgentServer withRecorder(SessionRecorder recorder) {
+        this.recorder = recorder;
+        return this;
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("Lawencon HR Agent server berjalan di port " + getPort()
+                + " (maks " + permits.availablePermits() + " permintaan paralel)");
+    }
+
+    public void stop() {
+        server.stop(1);
+        threads.shutdown();
+        tenants.close();
+        SessionRecorder r = recorder;
+        if (r != null) r.close();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // === HANDLERS ===
+    private void handleQuery(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            try {
+                answer(exchange);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                System.out.println("⚠️ Server error: " + e.getMessage());
+                // once the headers are out the status is fixed; closing the exchange ends the reply
+                if (exchange.getResponseCode() == -1) send(exchange, 500, error("Terjadi kesalahan internal."));
+            }
+        }
+    }
+
+    private void answer(HttpExchange exchange) throws IOException, InterruptedException {
+        if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            send(exchange, 405, error("Gunakan POST dengan body JSON {\"input\": \"...\"}"));
+            return;
+        }
+
+        String input;
+        String tenant;
+        try (InputStream in = exchange.getRequestBody()) {
+            JSONObject body = new JSONObject(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            input = body.optString("input", "").trim();
+            tenant = body.optString("tenant", exchange.getRequestHeaders().getFirst("X-Tenant"));
+        } catch (JSONException e) {
+            send(exchange, 400, error("Body harus berupa JSON valid: " + e.getMessage()));
+            return;
+        }
+        if (input.isBlank()) {
+            send(exchange, 400, error("Field 'input' wajib diisi."));
+            return;
+        }
+
+        if (!permits.tryAcquire(ACQUIRE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            send(exchange, 503, error("Server sedang sibuk, silakan coba lagi."));
+            return;
+        }
+        Tenants.Lease lease = null;
+        try {
+            try {
+                lease = tenants.acquire(tenant);
+            } catch (IllegalArgumentException e) {
+                send(exchange, 404, error(e.getMessage()));
+                return;
+            }
+            ActionExecutor executor = lease.executor();
+            long started = System.nanoTime();
+            var pending = clf.parseAsync(input);
+            // local and cached classifications are already done; speculate only while Gemini works
+            Speculation speculation = pending.isDone() ? Speculation.NONE : executor.speculate(input);
+            var parsed = pending.join();
+            long classified = System.nanoTime();
+            String result = executor.execute(parsed, speculation);
+            SessionRecorder r = recorder;
+            if (r != null)
+                r.record(tenant, input, parsed, result, classified - started, System.nanoTime() - classified);
+            send(exchange, 200, parsed.toJson().put("result", result));
+        } finally {
+            if (lease != null) lease.close();
+            permits.release();
+        }
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            send(exchange, 200, new JSONObject().put("status", "ok"));
+        }
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] bytes = Metrics.get().dump().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    // === HELPERS ===
+    private static JSONObject error(String message) {
+        return new JSONObject().put("error", message);
+    }
+
+    private static void send(HttpExchange exchange, int status, JSONObject body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /** JDK HTTP server with Nagle off; shared with {@link StubGeminiServer}. */
+    static HttpServer newHttpServer(InetSocketAddress address) throws IOException {
+        // read when the first server is created; Nagle adds ~40 ms per small reply
+        if (System.getProperty("sun.net.httpserver.nodelay") == null)
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        return HttpServer.create(address, 0);
+    }
+}
@@ -0,0 +1,193 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single-writer, group-commit appender for one line-oriented data file.
+ *
+ * Callers enqueue lines and get a future; one daemon thread drains whatever has queued up
+ * (up to {@code hr.append.maxBatch} lines, optionally lingering {@code hr.append.lingerMs}
+ * for more), appends the batch with one gathering write and then forces it according to
+ * {@code hr.append.durability}:
+ *   none   no force; the OS flushes when it likes
+ *   data   force file contents (default)
+ *   full   force contents and metadata
+ * Each future completes only after its batch is written and forced, so a burst of N
+ * requests costs one open, one write and one fsync instead of N of each, and lines from
+ * concurrent callers can never interleave.
+ */
+public final class AppendWriter implements AutoCloseable {
+
+    public enum Durability { NONE, DATA, FULL }
+
+    private static final int MAX_BATCH = Integer.getInteger("hr.append.maxBatch", 256);
+    private static final long LINGER_MS = Long.getLong("hr.append.lingerMs", 0L);
+    private static final Durability DURABILITY = Durability.valueOf(
+            System.getProperty("hr.append.durability", "data").toUpperCase(Locale.ROOT));
+
+    private final Path path;
+    private final Durability durability;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Thread thread;
+    private volatile boolean closed;
+    /** File size right after our last write (which always ends in a newline), or -1. */
+    private long lastEnd = -1;
+
+    public AppendWriter(Path path) {
+        this(path, DURABILITY);
+    }
+
+    public AppendWriter(Path path, Durability durability) {
+        this.path = path;
+        this.durability = durability;
+        this.thread = new Thread(this::run, "hr-append-" + path.getFileName());
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queues one line (without its terminator) for appending.
+     * @return future of the line's position: its start and end byte offsets in the file
+     */
+    public CompletableFuture<Position> append(String line) {
+        Pending p = new Pending((line + "\n").getBytes(StandardCharsets.UTF_8));
+        if (closed) {
+            p.done.completeExceptionally(new IOException("writer untuk " + path.getFileName() + " sudah ditutup"));
+            return p.done;
+        }
+        pending.incrementAndGet();
+        queue.add(p);
+        return p.done;
+    }
+
+    /** Lines queued or being written; 0 means every accepted line is in the file and its future has completed. */
+    public int pending() {
+        return pending.get();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /** Stops accepting lines and waits until the queued ones are written. */
+    @Override
+    public void close() {
+        closed = true;
+        queue.add(Pending.POISON);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // === WRITER THREAD ===
+    private void run() {
+        List<Pending> batch = new ArrayList<>(MAX_BATCH);
+        boolean stop = false;
+        while (!stop) {
+            try {
+                batch.add(queue.take());
+                if (LINGER_MS > 0 && batch.get(0) != Pending.POISON) Thread.sleep(LINGER_MS);
+                queue.drainTo(batch, MAX_BATCH - 1);
+            } catch (InterruptedException e) {
+                stop = true;
+            }
+            stop |= batch.remove(Pending.POISON);
+            if (!batch.isEmpty()) write(batch);
+            batch.clear();
+        }
+        // fail anything that slipped in after close()
+        for (Pending p; (p = queue.poll()) != null; )
+            if (p != Pending.POISON) fail(p, new IOException("writer ditutup"));
+    }
+
+    private void write(List<Pending> batch) {
+        long started = System.nanoTime();
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long position = ch.size();
+            // never glue a record onto a hand-edited last line without a newline
+            boolean needsNewline = position > 0 && position != lastEnd && !endsWithNewline(path, position);
+
+            ByteBuffer[] buffers = new ByteBuffer[batch.size() + (needsNewline ? 1 : 0)];
+            int b = 0;
+            if (needsNewline) buffers[b++] = ByteBuffer.wrap(new byte[]{'\n'});
+            for (Pending p : batch) buffers[b++] = ByteBuffer.wrap(p.bytes);
+
+            long total = 0;
+            for (ByteBuffer buf : buffers) total += buf.remaining();
+            long written = 0;
+            while (written < total) written += ch.write(buffers);
+
+            if (durability != Durability.NONE) ch.force(durability == Durability.FULL);
+
+            lastEnd = position + total;
+            long offset = position + (needsNewline ? 1 : 0);
+            Metrics.get().recordSize("append.batch_lines", batch.size());
+            Metrics.get().recordSince("append_flush", null, started);
+            for (Pending p : batch) {
+                p.done.complete(new Position(offset, offset + p.bytes.length));
+                pending.decrementAndGet();   // after the callbacks, so 0 means they have all run
+                offset += p.bytes.length;
+            }
+        } catch (IOException | RuntimeException e) {
+            Metrics.get().increment("append.failure");
+            for (Pending p : batch) fail(p, e);
+        }
+    }
+
+    private void fail(Pending p, Exception e) {
+        p.done.completeExceptionally(e);
+        pending.decrementAndGet();
+    }
+
+    private static boolean endsWithNewline(Path path, long size) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            ch.read(last, size - 1);
+            return last.get(0) == '\n';
+        }
+    }
+
+    /** Waits for an append, rethrowing a failed write as the IOException it was. */
+    public static Position await(CompletableFuture<Position> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) throw io;
+            throw new IOException(cause == null ? e.getMessage() : cause.getMessage(), cause);
+        }
+    }
+
+    /** Byte range a line occupies in the file, terminator included. */
+    public static final class Position {
+        public final long start;
+        public final long end;
+
+        Position(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private static final class Pending {
+        static final Pending POISON = new Pending(new byte[0]);
+
+        final byte[] bytes;
+        final CompletableFuture<Position> done = new CompletableFuture<>();
+
+        Pending(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Calendar of who is away: for every day, the set of employee ordinals with an approved or
+ * pending leave request covering it, plus one membership bitmap per department.
+ *
+ * A day is stored compressed, as a sorted ordinal array while only a few people are out and
+ * as a {@link BitSet} once that is smaller. "Who in Produk is out next week" ORs the week's
+ * days into one bitmap and ANDs it with the department's; a team is the bitmap of its
+ * {@link OrgTree} tour range. Neither looks at requests outside the period.
+ *
+ * Only days within {@code hr.availability.years} (default 5) of the build date are kept,
+ * so a row with a mistyped year costs at most that window, not every day up to it; the
+ * window stays put for the snapshot's lifetime and days outside it read as nobody away.
+ *
+ * Appended rows and status changes go through {@link #withHistories}: the affected
+ * employees are cleared from the days of their old requests and set on the days of their
+ * new ones, and only those days are rebuilt. The day map itself is copied on every update,
+ * so an append costs O(days of the changed requests + days indexed), the latter bounded by
+ * the window. Instances are immutable.
+ */
+public final class AvailabilityIndex {
+
+    /** Longest period one query may cover. */
+    static final int MAX_DAYS = 366;
+    private static final int WINDOW_YEARS = Integer.getInteger("hr.availability.years", 5);
+
+    private final EmployeeTable employees;
+    private final OrgTree orgTree;
+    private final BitSet[] departments;
+    /** Epoch day → employees away; days nobody is away are absent. */
+    private final Map<Long, Day> days;
+    /** Epoch days of the indexed window, both inclusive. */
+    private final long firstDay;
+    private final long lastDay;
+
+    private AvailabilityIndex(EmployeeTable employees, OrgTree orgTree, BitSet[] departments, Map<Long, Day> days,
+                              long firstDay, long lastDay) {
+        this.employees = employees;
+        this.orgTree = orgTree;
+        this.departments = departments;
+        this.days = days;
+        this.firstDay = firstDay;
+        this.lastDay = lastDay;
+    }
+
+    /** Index of every request in {@code leaveHistory}, over the window around today. */
+    static AvailabilityIndex build(EmployeeTable employees, OrgTree orgTree, Map<String, LeaveHistory> leaveHistory) {
+        return build(employees, orgTree, leaveHistory, LocalDate.now());
+    }
+
+    static AvailabilityIndex build(EmployeeTable employees, OrgTree orgTree, Map<String, LeaveHistory> leaveHistory,
+                                   LocalDate today) {
+        BitSet[] departments = new BitSet[employees.departments.length];
+        for (int d = 0; d < departments.length; d++) departments[d] = new BitSet(employees.size());
+        for (int e = 0; e < employees.size(); e++) departments[employees.department[e]].set(e);
+        return new AvailabilityIndex(employees, orgTree, departments, Map.of(),
+                today.minusYears(WINDOW_YEARS).toEpochDay(), today.plusYears(WINDOW_YEARS).toEpochDay())
+                .withHistories(Map.of(), leaveHistory, leaveHistory.keySet());
+    }
+
+    /**
+     * Index after the histories of {@code changed} employees went from their entry in
+     * {@code before} to the one in {@code after}.
+     */
+    AvailabilityIndex withHistories(Map<String, LeaveHistory> before, Map<String, LeaveHistory> after,
+                                    Collection<String> changed) {
+        // clear everyone first: a later employee's new days may share an earlier one's old days
+        Map<Long, BitSet> touched = new HashMap<>();
+        for (String empId : changed) {
+            int e = employees.ordinal(empId);
+            if (e >= 0) mark(touched, before.getOrDefault(empId, LeaveHistory.EMPTY), e, false);
+        }
+        for (String empId : changed) {
+            int e = employees.ordinal(empId);
+            if (e >= 0) mark(touched, after.getOrDefault(empId, LeaveHistory.EMPTY), e, true);
+        }
+        if (touched.isEmpty()) return this;
+        return new AvailabilityIndex(employees, orgTree, departments, compress(touched, days), firstDay, lastDay);
+    }
+
+    // === QUERIES ===
+    /** Employees away on at least one day of [from, to]; at most {@value #MAX_DAYS} days. */
+    public BitSet away(LocalDate from, LocalDate to) {
+        BitSet out = new BitSet(employees.size());
+        long last = Math.min(to.toEpochDay(), from.toEpochDay() + MAX_DAYS - 1);
+        for (long day = from.toEpochDay(); day <= last; day++) {
+            Day d = days.get(day);
+            if (d != null) d.orInto(out);
+        }
+        return out;
+    }
+
+    /** Members of a department; the caller must not modify it. */
+    public BitSet department(int code) {
+        return departments[code];
+    }
+
+    /** The manager and everyone below them. */
+    public BitSet team(int manager) {
+        BitSet out = new BitSet(employees.size());
+        for (int t = orgTree.tin(manager); t <= orgTree.tout(manager); t++) out.set(orgTree.atTour(t));
+        return out;
+    }
+
+    /** Everyone. */
+    public BitSet all() {
+        BitSet out = new BitSet(employees.size());
+        out.set(0, employees.size());
+        return out;
+    }
+
+    // === HELPERS ===
+    /**
+     * Sets or clears {@code e} on every day of the history's active requests that falls in
+     * the window, in working copies of those days.
+     */
+    private void mark(Map<Long, BitSet> touched, LeaveHistory history, int e, boolean away) {
+        for (int i = 0; i < history.size(); i++) {
+            LeaveHistory.Request r = history.get(i);
+            if (!r.isActive()) continue;
+            long last = Math.min(r.endDay, lastDay);
+            for (long day = Math.max(r.startDay, firstDay); day <= last; day++)
+                touched.computeIfAbsent(day, this::copyOf).set(e, away);
+        }
+    }
+
+    private BitSet copyOf(long day) {
+        Day d = days.get(day);
+        return d == null ? new BitSet() : d.toBitSet();
+    }
+
+    /** {@code base} with the days in {@code changed} replaced; days left empty are dropped. */
+    private static Map<Long, Day> compress(Map<Long, BitSet> changed, Map<Long, Day> base) {
+        Map<Long, Day> out = new HashMap<>(base);
+        changed.forEach((day, bits) -> {
+            if (bits.isEmpty()) out.remove(day);
+            else out.put(day, Day.of(bits));
+        });
+        return Map.copyOf(out);
+    }
+
+    /** One day's ordinals: a sorted array while that is smaller than the bitmap up to the highest one. */
+    private static final class Day {
+        private final int[] sparse;
+        private final BitSet dense;
+
+        private Day(int[] sparse, BitSet dense) {
+            this.sparse = sparse;
+            this.dense = dense;
+        }
+
+        static Day of(BitSet bits) {
+            return (long) bits.cardinality() * Integer.SIZE < bits.length()
+                    ? new Day(bits.stream().toArray(), null)
+                    : new Day(null, BitSet.valueOf(bits.toLongArray()));
+        }
+
+        void orInto(BitSet out) {
+            if (dense != null) out.or(dense);
+            else for (int e : sparse) out.set(e);
+        }
+
+        BitSet toBitSet() {
+            BitSet out = new BitSet();
+            orInto(out);
+            return out;
+        }
+    }
+}
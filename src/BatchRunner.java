@@ -0,0 +1,96 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+import org.json.JSONObject;
+
+/**
+ * Runs a file (or stdin) of HR queries, one per line, and prints one JSON line per query.
+ * Queries are classified in multi-input Gemini prompts; executing a classified chunk
+ * overlaps with classifying the next one.
+ */
+public class BatchRunner {
+
+    private final IntentClassifierGemini clf;
+    private final ActionExecutor executor;
+    private final int batchSize;
+
+    public BatchRunner(IntentClassifierGemini clf, ActionExecutor executor, int batchSize) {
+        this.clf = clf;
+        this.executor = executor;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /** @param source a file path, or "-" for stdin */
+    public void run(String source, PrintStream out) throws IOException {
+        try (BufferedReader in = "-".equals(source)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(source), StandardCharsets.UTF_8)) {
+            run(in, out);
+        }
+    }
+
+    public void run(BufferedReader in, PrintStream out) throws IOException {
+        // single writer thread keeps output in input order
+        ExecutorService stage = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "hr-batch-execute");
+            t.setDaemon(true);
+            return t;
+        });
+        int total = 0;
+        long started = System.nanoTime();
+
+        try {
+            List<String> chunk = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                chunk.add(line);
+                if (chunk.size() == batchSize) {
+                    submit(stage, chunk, out);
+                    total += chunk.size();
+                    chunk = new ArrayList<>();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submit(stage, chunk, out);
+                total += chunk.size();
+            }
+        } finally {
+            stage.shutdown();
+            try {
+                stage.awaitTermination(1, TimeUnit.HOURS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        System.err.printf("Batch selesai: %d query dalam %d ms%n", total, millis);
+    }
+
+    private void submit(ExecutorService stage, List<String> chunk, PrintStream out) {
+        List<IntentClassifierGemini.ParsedIntent> parsed = clf.parseBatch(chunk, batchSize);
+        stage.submit(() -> {
+            for (int i = 0; i < chunk.size(); i++) {
+                var p = parsed.get(i);
+                String result;
+                try {
+                    result = executor.execute(p, Speculation.NONE);
+                } catch (RuntimeException e) {
+                    result = "Error: " + e.getMessage();
+                }
+                out.println(new JSONObject()
+                        .put("input", chunk.get(i))
+                        .put("intent", p.intent)
+                        .put("entities", new JSONObject(p.entities))
+                        .put("parts", p.toJson().optJSONArray("parts"))
+                        .put("result", result));
+            }
+            out.flush();
+        });
+    }
+}
@@ -0,0 +1,427 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * Precompiled binary form of the CSV datasets, cached per data directory under
+ * {@code hr.snapshot.dir} (default {@code ~/.cache/hr-agent}), apart from the data itself.
+ *
+ * Layout (big-endian): a header with the magic, the fingerprint of each source CSV and a
+ * CRC32C of the payload, then the payload itself: one dictionary of every distinct string,
+ * followed by the {@link EmployeeTable} columns (one fixed-width row of dictionary ids and
+ * codes per employee, the code dictionaries, and the balance arrays as they are held in
+ * memory), every dated leave request (as epoch days), the request-ID index as positions into
+ * those rows, and the prebuilt {@link NameIndex} postings.
+ *
+ * Loading memory-maps the file and only decodes each distinct string once, so startup skips
+ * CSV parsing and the index build. The snapshot is valid while every source has the recorded
+ * size and mtime; when those differ, the recorded checksum decides (a touched but unchanged
+ * file still counts as valid). Size and mtime alone are not trusted for a file modified within
+ * {@value #MTIME_RESOLUTION_MS} ms of being fingerprinted: a coarse filesystem clock can leave
+ * a second write in that window with the same mtime, so its checksum decides too.
+ * leave_requests.csv may also have grown: the snapshot covers its prefix and the new tail is
+ * parsed as usual. Anything else rebuilds from CSV and rewrites the file. Disable with
+ * {@code -Dhr.snapshot=false}.
+ *
+ * Compile ahead of time with {@code java BinarySnapshot [dataDir]}.
+ */
+public final class BinarySnapshot {
+
+    static final String FILE_NAME = "hr-snapshot.bin";
+    static final String EMPLOYEES = "employees.csv";
+    static final String LEAVE_BALANCES = "leave_balances.csv";
+
+    private static final long MAGIC = 0x4852534E41500007L; // "HRSNAP" + version 7
+    /** id, name, email, join date, manager ID, title code, department code, status code */
+    private static final int EMPLOYEE_WIDTH = 8;
+    /** Coarsest mtime granularity expected from a filesystem (FAT keeps 2 seconds). */
+    static final long MTIME_RESOLUTION_MS = 2_000;
+    /** Rewrite once this many bytes of leave_requests.csv have to be tailed on every start. */
+    private static final long MAX_TAIL_BYTES = 1 << 20;
+
+    private BinarySnapshot() { }
+
+    public static boolean enabled() {
+        return Boolean.parseBoolean(System.getProperty("hr.snapshot", "true"));
+    }
+
+    /** Cache file of a data directory; directories are told apart by a hash of their absolute path. */
+    static Path file(Path dataDir) {
+        String dir = System.getProperty("hr.snapshot.dir");
+        Path cache = dir != null && !dir.isBlank()
+                ? Paths.get(dir)
+                : Paths.get(System.getProperty("user.home"), ".cache", "hr-agent");
+        CRC32C hash = new CRC32C();
+        hash.update(dataDir.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8));
+        return cache.resolve(String.format("%08x-%s", hash.getValue(), FILE_NAME));
+    }
+
+    /** Loads the precompiled snapshot when it is still valid, otherwise parses the CSVs and recompiles. */
+    public static HRDataSnapshot loadOrCompile(Path dataDir) {
+        Path file = file(dataDir);
+        HRDataSnapshot s = null;
+        if (Files.isRegularFile(file)) {
+            try {
+                s = read(dataDir, file);
+            } catch (IOException | RuntimeException e) {
+                System.out.println("⚠️ Snapshot biner tidak dapat dibaca, memuat ulang dari CSV: " + e.getMessage());
+            }
+        }
+        if (s != null) {
+            HRDataSnapshot tailed = s.withTailedLeaveRequests();
+            if (tailed.leaveRequestsOffset - s.leaveRequestsOffset > MAX_TAIL_BYTES) tryWrite(tailed);
+            return tailed;
+        }
+
+        s = HRDataSnapshot.fromCsv(dataDir);
+        tryWrite(s);
+        return s;
+    }
+
+    // === WRITE ===
+    private static void tryWrite(HRDataSnapshot s) {
+        try {
+            write(s);
+        } catch (IOException e) {
+            System.out.println("⚠️ Snapshot biner tidak dapat ditulis: " + e.getMessage());
+        }
+    }
+
+    /** Serializes the snapshot into the cache, replacing any previous file atomically. */
+    static void write(HRDataSnapshot s) throws IOException {
+        // fingerprint first: a CSV modified while we write simply makes the result stale
+        Fingerprint employees = Fingerprint.of(s.dataDir.resolve(EMPLOYEES), -1);
+        Fingerprint balances = Fingerprint.of(s.dataDir.resolve(LEAVE_BALANCES), -1);
+        Fingerprint requests = Fingerprint.of(s.dataDir.resolve(HRDataSnapshot.LEAVE_REQUESTS), s.leaveRequestsOffset);
+
+        Dictionary dict = new Dictionary();
+        EmployeeTable t = s.employees;
+        int[] employeeRows = new int[t.size() * EMPLOYEE_WIDTH];
+        for (int e = 0, i = 0; e < t.size(); e++) {
+            employeeRows[i++] = dict.id(t.ids[e]);
+            employeeRows[i++] = dict.id(t.names[e]);
+            employeeRows[i++] = dict.id(t.emails[e]);
+            employeeRows[i++] = dict.id(t.joinDates[e]);
+            employeeRows[i++] = dict.id(t.managerIds[e]);
+            employeeRows[i++] = t.title[e];
+            employeeRows[i++] = t.department[e];
+            employeeRows[i++] = t.status[e];
+        }
+        int[] titles = dict.ids(t.titles);
+        int[] departments = dict.ids(t.departments);
+        int[] statuses = dict.ids(t.statuses);
+        int[] leaveTypes = dict.ids(t.leaveTypes);
+
+        List<Integer> historyRows = new ArrayList<>();
+        Map<LeaveHistory.Request, Integer> positions = new IdentityHashMap<>();
+        s.leaveHistory.values().forEach(history -> {
+            for (int i = 0; i < history.size(); i++) {
+                LeaveHistory.Request r = history.get(i);
+                positions.put(r, i);
+                historyRows.add(dict.id(r.id));
+                historyRows.add(dict.id(r.employeeId));
+                historyRows.add(dict.id(r.type));
+                historyRows.add((int) r.start.toEpochDay());
+                historyRows.add((int) r.end.toEpochDay());
+                historyRows.add(dict.id(r.status));
+            }
+        });
+
+        // the ID index points into the histories: employee ID + position
+        List<Integer> byIdRows = new ArrayList<>();
+        s.leaveRequestsById.values().forEach(r -> {
+            byIdRows.add(dict.id(r.employeeId));
+            byIdRows.add(positions.get(r));
+        });
+
+        String[] names = s.nameIndex.names();
+        int[] nameIds = new int[names.length];
+        for (int i = 0; i < names.length; i++) nameIds[i] = dict.id(names[i]);
+        Map<String, int[]> postings = s.nameIndex.postings();
+        long postingInts = 0;
+        for (int[] p : postings.values()) postingInts += 2 + p.length;
+        for (String gram : postings.keySet()) dict.id(gram);
+
+        long payloadSize = dict.byteSize()
+                + 4L + 4L * employeeRows.length
+                + 4L + 4L * titles.length
+                + 4L + 4L * departments.length
+                + 4L + 4L * statuses.length
+                + 4L + 4L * leaveTypes.length
+                + 4L + 4L * t.balanceStart.length
+                + 4L + 4L * t.balanceType.length
+                + 4L + 4L * t.balanceDays.length
+                + 4L + 4L * historyRows.size()
+                + 4L + 4L * byIdRows.size()
+                + 4L + 4L * nameIds.length
+                + 4L + 4L * postingInts;
+        int headerSize = 8 + 3 * Fingerprint.BYTES + 8;
+        if (headerSize + payloadSize > Integer.MAX_VALUE)
+            throw new IOException("snapshot melebihi 2 GiB");
+
+        ByteBuffer buf = ByteBuffer.allocate((int) (headerSize + payloadSize));
+        buf.putLong(MAGIC);
+        employees.put(buf);
+        balances.put(buf);
+        requests.put(buf);
+        buf.putLong(0); // payload checksum, patched below
+
+        dict.put(buf);
+        putInts(buf, employeeRows);
+        putInts(buf, titles);
+        putInts(buf, departments);
+        putInts(buf, statuses);
+        putInts(buf, leaveTypes);
+        putInts(buf, t.balanceStart);
+        putInts(buf, t.balanceType);
+        putInts(buf, t.balanceDays);
+        putInts(buf, historyRows);
+        putInts(buf, byIdRows);
+        putInts(buf, nameIds);
+        buf.putInt(postings.size());
+        for (Map.Entry<String, int[]> e : postings.entrySet()) {
+            buf.putInt(dict.id(e.getKey()));
+            putInts(buf, e.getValue());
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(buf.array(), headerSize, buf.position() - headerSize);
+        buf.putLong(headerSize - 8, crc.getValue());
+
+        Path target = file(s.dataDir);
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), FILE_NAME, ".tmp");
+        try {
+            Files.write(tmp, buf.array());
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // === READ ===
+    /** @return the decoded snapshot, or null when it no longer matches the CSVs */
+    static HRDataSnapshot read(Path dataDir, Path file) throws IOException {
+        ByteBuffer buf;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+        if (buf.getLong() != MAGIC) return null;
+
+        Fingerprint employees = Fingerprint.get(buf);
+        Fingerprint balances = Fingerprint.get(buf);
+        Fingerprint leaveRequests = Fingerprint.get(buf);
+        if (!employees.matches(dataDir.resolve(EMPLOYEES), false)
+                || !balances.matches(dataDir.resolve(LEAVE_BALANCES), false)
+                || !leaveRequests.matches(dataDir.resolve(HRDataSnapshot.LEAVE_REQUESTS), true))
+            return null;
+
+        long expectedCrc = buf.getLong();
+        CRC32C crc = new CRC32C();
+        crc.update(buf.slice());
+        if (crc.getValue() != expectedCrc) throw new IOException("checksum snapshot tidak cocok");
+
+        String[] dict = Dictionary.get(buf);
+
+        int[] employeeRows = getInts(buf);
+        int n = employeeRows.length / EMPLOYEE_WIDTH;
+        String[] ids = new String[n], names = new String[n], emails = new String[n],
+                joinDates = new String[n], managerIds = new String[n];
+        int[] title = new int[n], department = new int[n], status = new int[n];
+        for (int e = 0, i = 0; e < n; e++) {
+            ids[e] = dict[employeeRows[i++]];
+            names[e] = dict[employeeRows[i++]];
+            emails[e] = dict[employeeRows[i++]];
+            joinDates[e] = dict[employeeRows[i++]];
+            managerIds[e] = dict[employeeRows[i++]];
+            title[e] = employeeRows[i++];
+            department[e] = employeeRows[i++];
+            status[e] = employeeRows[i++];
+        }
+        String[] titles = strings(dict, getInts(buf));
+        String[] departments = strings(dict, getInts(buf));
+        String[] statuses = strings(dict, getInts(buf));
+        String[] leaveTypes = strings(dict, getInts(buf));
+        EmployeeTable table = new EmployeeTable(ids, names, emails, joinDates, managerIds,
+                title, titles, department, departments, status, statuses,
+                getInts(buf), getInts(buf), getInts(buf), leaveTypes);
+
+        int[] historyRows = getInts(buf);
+        List<LeaveHistory.Request> requests = new ArrayList<>(historyRows.length / 6);
+        for (int i = 0; i < historyRows.length; i += 6)
+            requests.add(new LeaveHistory.Request(
+                    dict[historyRows[i]], dict[historyRows[i + 1]], dict[historyRows[i + 2]],
+                    LocalDate.ofEpochDay(historyRows[i + 3]), LocalDate.ofEpochDay(historyRows[i + 4]),
+                    dict[historyRows[i + 5]]));
+        Map<String, LeaveHistory> leaveHistory = HRDataSnapshot.appendHistory(Map.of(), requests);
+
+        int[] byIdRows = getInts(buf);
+        Map<String, LeaveHistory.Request> leaveRequestsById = new HashMap<>(byIdRows.length);
+        for (int i = 0; i < byIdRows.length; i += 2) {
+            LeaveHistory.Request r = leaveHistory.get(dict[byIdRows[i]]).get(byIdRows[i + 1]);
+            leaveRequestsById.put(r.id, r);
+        }
+
+        int[] nameIds = getInts(buf);
+        String[] indexNames = strings(dict, nameIds);
+        int grams = buf.getInt();
+        Map<String, int[]> postings = new HashMap<>(grams * 2);
+        for (int i = 0; i < grams; i++) {
+            String gram = dict[buf.getInt()];
+            postings.put(gram, getInts(buf));
+        }
+
+        return HRDataSnapshot.of(dataDir, table, leaveHistory, leaveRequestsById, leaveRequests.offset, new NameIndex(indexNames, postings));
+    }
+
+    // === HELPERS ===
+    private static void putInts(ByteBuffer buf, int[] values) {
+        buf.putInt(values.length);
+        buf.asIntBuffer().put(values);
+        buf.position(buf.position() + 4 * values.length);
+    }
+
+    private static void putInts(ByteBuffer buf, List<Integer> values) {
+        buf.putInt(values.size());
+        for (int v : values) buf.putInt(v);
+    }
+
+    private static String[] strings(String[] dict, int[] ids) {
+        String[] out = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) out[i] = dict[ids[i]];
+        return out;
+    }
+
+    private static int[] getInts(ByteBuffer buf) {
+        int[] values = new int[buf.getInt()];
+        buf.asIntBuffer().get(values);
+        buf.position(buf.position() + 4 * values.length);
+        return values;
+    }
+
+    /**
+     * Size, mtime and CRC32C of the first {@code length} bytes of a source CSV
+     * (the whole file, except for leave_requests.csv which may keep growing), and when
+     * they were taken.
+     */
+    private static final class Fingerprint {
+        static final int BYTES = 40;
+
+        final long size;
+        final long mtime;
+        final long offset;
+        final long crc;
+        final long takenAt;
+
+        private Fingerprint(long size, long mtime, long offset, long crc, long takenAt) {
+            this.size = size;
+            this.mtime = mtime;
+            this.offset = offset;
+            this.crc = crc;
+            this.takenAt = takenAt;
+        }
+
+        /** @param length bytes covered by the snapshot, or -1 for the whole file */
+        static Fingerprint of(Path path, long length) throws IOException {
+            long takenAt = System.currentTimeMillis();
+            if (!Files.exists(path)) return new Fingerprint(-1, 0, 0, 0, takenAt);
+            long mtime = Files.getLastModifiedTime(path).toMillis();
+            long size = Files.size(path);
+            long covered = length < 0 ? size : length;
+            return new Fingerprint(size, mtime, covered, checksum(path, covered), takenAt);
+        }
+
+        static Fingerprint get(ByteBuffer buf) {
+            return new Fingerprint(buf.getLong(), buf.getLong(), buf.getLong(), buf.getLong(), buf.getLong());
+        }
+
+        void put(ByteBuffer buf) {
+            buf.putLong(size).putLong(mtime).putLong(offset).putLong(crc).putLong(takenAt);
+        }
+
+        boolean matches(Path path, boolean mayGrow) throws IOException {
+            if (!Files.exists(path)) return size == -1;
+            long current = Files.size(path);
+            // an mtime this close to the fingerprint could hide a later write in the same clock tick
+            boolean settled = takenAt - mtime > MTIME_RESOLUTION_MS;
+            if (settled && current == size && Files.getLastModifiedTime(path).toMillis() == mtime) return true;
+            if (size == -1 || current < offset || (!mayGrow && current != size)) return false;
+            return checksum(path, offset) == crc;
+        }
+
+        private static long checksum(Path path, long length) throws IOException {
+            CRC32C crc = new CRC32C();
+            try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+                for (long pos = 0; pos < length; ) {
+                    long n = Math.min(length - pos, 1 << 30);
+                    crc.update(ch.map(FileChannel.MapMode.READ_ONLY, pos, n));
+                    pos += n;
+                }
+            }
+            return crc.getValue();
+        }
+    }
+
+    /** Every distinct string once: count, end offsets, then the UTF-8 bytes back to back. */
+    private static final class Dictionary {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<byte[]> encoded = new ArrayList<>();
+        private long bytes;
+
+        int id(String s) {
+            Integer id = ids.get(s);
+            if (id != null) return id;
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            encoded.add(b);
+            bytes += b.length;
+            ids.put(s, encoded.size() - 1);
+            return encoded.size() - 1;
+        }
+
+        int[] ids(String[] strings) {
+            int[] out = new int[strings.length];
+            for (int i = 0; i < strings.length; i++) out[i] = id(strings[i]);
+            return out;
+        }
+
+        long byteSize() {
+            return 4L + 4L * encoded.size() + bytes;
+        }
+
+        void put(ByteBuffer buf) {
+            buf.putInt(encoded.size());
+            int end = 0;
+            for (byte[] b : encoded) buf.putInt(end += b.length);
+            for (byte[] b : encoded) buf.put(b);
+        }
+
+        static String[] get(ByteBuffer buf) {
+            int n = buf.getInt();
+            int[] ends = new int[n];
+            buf.asIntBuffer().get(ends);
+            buf.position(buf.position() + 4 * n);
+
+            byte[] blob = new byte[n == 0 ? 0 : ends[n - 1]];
+            buf.get(blob);
+            String[] strings = new String[n];
+            for (int i = 0, start = 0; i < n; start = ends[i++])
+                strings[i] = new String(blob, start, ends[i] - start, StandardCharsets.UTF_8);
+            return strings;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path dataDir = args.length > 0 ? Paths.get(args[0]) : DataRetriever.defaultDataDir();
+        long start = System.nanoTime();
+        HRDataSnapshot s = HRDataSnapshot.fromCsv(dataDir);
+        write(s);
+        System.out.printf("Snapshot %s ditulis: %d karyawan, %d byte, %.1f ms%n",
+                file(dataDir), s.employees.size(), Files.size(file(dataDir)),
+                (System.nanoTime() - start) / 1e6);
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Consecutive-failure circuit breaker.
+ *
+ * CLOSED: calls pass; {@code failureThreshold} failures in a row open the circuit.
+ * OPEN: calls are rejected until {@code openMillis} have passed.
+ * HALF_OPEN: one trial call is let through; success closes the circuit, failure re-opens it.
+ *
+ * Every acquired call must end in {@link #onSuccess}, {@link #onFailure} or, when its outcome
+ * says nothing about the dependency's health, {@link #release}; otherwise a half-open
+ * circuit never lets another trial through.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /** Thrown instead of calling a dependency while the circuit is open. */
+    public static class OpenException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public OpenException(String name) {
+            super("Circuit " + name + " sedang terbuka, permintaan ditolak");
+        }
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(String name, int failureThreshold, long openMillis) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /** @throws OpenException when the call must not be attempted */
+    public synchronized void acquire() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openMillis) throw new OpenException(name);
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) throw new OpenException(name);
+            trialInFlight = true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            trialInFlight = false;
+        }
+    }
+
+    /** Ends a call without a verdict, such as one the dependency rejected as malformed. */
+    public synchronized void release() {
+        trialInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
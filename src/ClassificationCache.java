@@ -0,0 +1,125 @@
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded LRU cache of classification results, keyed on a normalized form of the input.
+ * Entries expire after a fixed TTL. Safe for concurrent callers.
+ */
+public class ClassificationCache {
+
+    private static final Pattern MONTH = Pattern.compile(
+        "\\b(jan|feb|mar|apr|jun|jul|agu|agt|ags|sep|sept|okt|nov|des)\\b");
+    private static final Map<String, String> MONTH_NAMES = Map.ofEntries(
+        Map.entry("jan", "januari"), Map.entry("feb", "februari"), Map.entry("mar", "maret"),
+        Map.entry("apr", "april"), Map.entry("jun", "juni"), Map.entry("jul", "juli"),
+        Map.entry("agu", "agustus"), Map.entry("agt", "agustus"), Map.entry("ags", "agustus"),
+        Map.entry("sep", "september"), Map.entry("sept", "september"), Map.entry("okt", "oktober"),
+        Map.entry("nov", "november"), Map.entry("des", "desember")
+    );
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ClassificationCache() {
+        this(Integer.getInteger("hr.cache.size", 1000),
+             Long.getLong("hr.cache.ttl.seconds", 600L) * 1000);
+    }
+
+    public ClassificationCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        // access-ordered so the eldest entry is the least recently used one
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ClassificationCache.this.maxSize;
+            }
+        };
+    }
+
+    // === ACCESS ===
+    public IntentClassifierGemini.ParsedIntent get(String input) {
+        String key = normalize(input);
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry e = entries.get(key);
+            if (e != null && e.expiresAt > now) {
+                hits.incrementAndGet();
+                return copy(e.value);
+            }
+            if (e != null) entries.remove(key);
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(String input, IntentClassifierGemini.ParsedIntent parsed) {
+        // fallbacks are transient failures, never remember them
+        if (maxSize <= 0 || parsed == null || "unknown".equals(parsed.intent)) return;
+        String key = normalize(input);
+        Entry e = new Entry(copy(parsed), System.currentTimeMillis() + ttlMillis);
+        synchronized (entries) {
+            entries.put(key, e);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    // === STATS ===
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ClassificationCache[size=%d/%d, hits=%d, misses=%d]",
+                size(), maxSize, getHits(), getMisses());
+    }
+
+    // === HELPERS ===
+    static String normalize(String input) {
+        if (input == null) return "";
+        String text = input.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ").trim();
+        Matcher m = MONTH.matcher(text);
+        StringBuilder sb = new StringBuilder();
+        while (m.find())
+            m.appendReplacement(sb, MONTH_NAMES.get(m.group(1)));
+        m.appendTail(sb);
+        return sb.toString();
+    }
+
+    /** Deep copy, so callers may modify the result; compound parts are copied too. */
+    static IntentClassifierGemini.ParsedIntent copy(IntentClassifierGemini.ParsedIntent p) {
+        if (p.isCompound()) {
+            List<IntentClassifierGemini.ParsedIntent> parts = new ArrayList<>(p.parts.size());
+            for (IntentClassifierGemini.ParsedIntent part : p.parts) parts.add(copy(part));
+            return IntentClassifierGemini.ParsedIntent.of(parts);
+        }
+        return new IntentClassifierGemini.ParsedIntent(p.intent, new HashMap<>(p.entities));
+    }
+
+    private static class Entry {
+        final IntentClassifierGemini.ParsedIntent value;
+        final long expiresAt;
+
+        Entry(IntentClassifierGemini.ParsedIntent value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
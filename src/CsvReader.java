@@ -0,0 +1,252 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streaming RFC-4180 reader for the data/ CSV files.
+ *
+ * Bytes are scanned straight from the file (memory-mapped above {@link #MMAP_THRESHOLD})
+ * and each record is handed over as a reusable {@link Row} of field offsets, so no
+ * per-line String, regex or String[] is created. Fields are decoded as UTF-8 only
+ * when a loader asks for them. Both ',' and TAB separate fields; quoted fields may
+ * contain separators, doubled quotes and line breaks; CRLF and LF are accepted.
+ */
+final class CsvReader {
+
+    static final int MMAP_THRESHOLD = 1 << 20;
+    private static final int MAX_WINDOW = 1 << 30;
+
+    @FunctionalInterface
+    interface RowHandler {
+        void row(Row row);
+    }
+
+    private CsvReader() { }
+
+    /**
+     * Reads records from byte offset {@code from} to the end of the file.
+     *
+     * @param skipHeader   drop the first record when {@code from} is 0
+     * @param completeOnly ignore a trailing record that has no line terminator yet
+     *                     (it is probably still being written)
+     * @return the offset just past the last record handed to {@code handler}
+     */
+    static long read(Path path, long from, boolean skipHeader, boolean completeOnly, RowHandler handler)
+            throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            long offset = from;
+            boolean header = skipHeader && from == 0;
+
+            while (offset < size) {
+                long remaining = size - offset;
+                boolean last = remaining <= MAX_WINDOW;
+                int length = (int) Math.min(remaining, MAX_WINDOW);
+
+                ByteBuffer buf;
+                if (length >= MMAP_THRESHOLD) {
+                    buf = ch.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                } else {
+                    buf = ByteBuffer.allocate(length);
+                    while (buf.hasRemaining() && ch.read(buf, offset + buf.position()) > 0) { }
+                    buf.flip();
+                }
+
+                int consumed = parse(buf, header, completeOnly || !last, handler);
+                header = false;
+                if (consumed == 0) break;
+                offset += consumed;
+            }
+            return offset;
+        }
+    }
+
+    /** Parses a single record held in memory, e.g. a row this process has just written. */
+    static void parseLine(String line, RowHandler handler) {
+        parse(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)), false, false, handler);
+    }
+
+    /**
+     * One record (without its terminator) that reads back as {@code fields}. A field is
+     * quoted when it holds a separator, quote or line break, or edge spaces that an
+     * unquoted field would lose; null is written as an empty field.
+     */
+    static String format(String... fields) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) sb.append(',');
+            String f = fields[i] == null ? "" : fields[i];
+            if (needsQuotes(f)) sb.append('"').append(f.replace("\"", "\"\"")).append('"');
+            else sb.append(f);
+        }
+        return sb.toString();
+    }
+
+    private static boolean needsQuotes(String f) {
+        if (f.isEmpty()) return false;
+        if (f.charAt(0) == ' ' || f.charAt(f.length() - 1) == ' ') return true;
+        for (int i = 0; i < f.length(); i++) {
+            char c = f.charAt(i);
+            if (c == ',' || c == '\t' || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+
+    /** @return number of bytes consumed by complete (or, at EOF, accepted) records */
+    private static int parse(ByteBuffer buf, boolean skipFirst, boolean completeOnly, RowHandler handler) {
+        Row row = new Row(buf);
+        int limit = buf.limit();
+        int pos = 0;
+        int consumed = 0;
+        boolean skip = skipFirst;
+
+        while (pos < limit) {
+            row.reset();
+            int fieldStart = pos;
+            boolean quoted = false;
+            boolean inQuotes = false;
+            boolean terminated = false;
+
+            while (pos < limit) {
+                byte b = buf.get(pos);
+                if (inQuotes) {
+                    if (b == '"') {
+                        if (pos + 1 < limit && buf.get(pos + 1) == '"') pos++;
+                        else inQuotes = false;
+                    }
+                    pos++;
+                } else if (b == '"') {
+                    inQuotes = true;
+                    quoted = true;
+                    pos++;
+                } else if (b == ',' || b == '\t') {
+                    row.add(fieldStart, pos, quoted);
+                    fieldStart = ++pos;
+                    quoted = false;
+                } else if (b == '\n') {
+                    row.add(fieldStart, pos, quoted);
+                    pos++;
+                    terminated = true;
+                    break;
+                } else {
+                    pos++;
+                }
+            }
+
+            if (!terminated) {
+                if (completeOnly) return consumed;
+                row.add(fieldStart, pos, quoted);
+            }
+            consumed = pos;
+
+            if (skip) {
+                skip = false;
+            } else if (!row.isBlank()) {
+                handler.row(row);
+            }
+        }
+        return consumed;
+    }
+
+    /**
+     * One record, valid only for the duration of the {@link RowHandler#row} call.
+     * Unquoted fields are trimmed like the old {@code split(...)[i].trim()} loaders did.
+     */
+    static final class Row {
+        private final ByteBuffer buf;
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private boolean[] quoted = new boolean[16];
+        private int size;
+        private byte[] scratch = new byte[64];
+
+        private Row(ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /** Decoded field, or "" when the record has fewer fields. */
+        public String get(int i) {
+            if (i >= size) return "";
+            int s = starts[i], e = ends[i];
+            while (s < e && isSpace(buf.get(s))) s++;
+            while (e > s && isSpace(buf.get(e - 1))) e--;
+            if (!quoted[i]) return decode(s, e, false);
+
+            // strip the enclosing quotes and undouble the inner ones
+            if (e - s >= 2 && buf.get(s) == '"' && buf.get(e - 1) == '"') return decode(s + 1, e - 1, true);
+            return decode(s, e, true);
+        }
+
+        /** Field parsed as a decimal int without allocating, or {@code dflt} when it is not one. */
+        public int getInt(int i, int dflt) {
+            if (i >= size || quoted[i]) return i < size ? parseInt(get(i), dflt) : dflt;
+            int s = starts[i], e = ends[i];
+            while (s < e && isSpace(buf.get(s))) s++;
+            while (e > s && isSpace(buf.get(e - 1))) e--;
+            if (s == e) return dflt;
+
+            boolean negative = buf.get(s) == '-';
+            if (negative || buf.get(s) == '+') s++;
+            if (s == e) return dflt;
+            long value = 0;
+            for (int p = s; p < e; p++) {
+                int d = buf.get(p) - '0';
+                if (d < 0 || d > 9) return dflt;
+                value = value * 10 + d;
+                if (value > Integer.MAX_VALUE + 1L) return dflt;
+            }
+            value = negative ? -value : value;
+            return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? dflt : (int) value;
+        }
+
+        private void add(int start, int end, boolean q) {
+            if (size == starts.length) {
+                starts = java.util.Arrays.copyOf(starts, size * 2);
+                ends = java.util.Arrays.copyOf(ends, size * 2);
+                quoted = java.util.Arrays.copyOf(quoted, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            quoted[size] = q;
+            size++;
+        }
+
+        private void reset() {
+            size = 0;
+        }
+
+        private boolean isBlank() {
+            if (size > 1) return false;
+            for (int p = starts[0]; p < ends[0]; p++)
+                if (!isSpace(buf.get(p))) return false;
+            return true;
+        }
+
+        private String decode(int s, int e, boolean unquote) {
+            int n = 0;
+            if (scratch.length < e - s) scratch = new byte[Math.max(e - s, scratch.length * 2)];
+            for (int p = s; p < e; p++) {
+                byte b = buf.get(p);
+                if (unquote && b == '"' && p + 1 < e && buf.get(p + 1) == '"') p++;
+                scratch[n++] = b;
+            }
+            return new String(scratch, 0, n, StandardCharsets.UTF_8);
+        }
+
+        private static boolean isSpace(byte b) {
+            return b == ' ' || b == '\r';
+        }
+
+        private static int parseInt(String s, int dflt) {
+            try { return Integer.parseInt(s.trim()); }
+            catch (NumberFormatException e) { return dflt; }
+        }
+    }
+}
@@ -1,240 +1,764 @@
-import java.io.*;
+import java.io.IOException;
 import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 
 public class DataRetriever {
 
-    private final Map<String, String> idToName = new HashMap<>();
-    private final Map<String, String> nameToId = new HashMap<>();
-    private final Map<String, String> employeeToManager = new HashMap<>();
-    private final Map<String, Map<String, Integer>> leaveBalances = new HashMap<>();
-    private final Map<String, Map<String, String>> employeeInfo = new HashMap<>();
-    private final Map<String, String> leaveRequestStatus = new HashMap<>();
+    private static volatile DataRetriever shared;
+
+    static final String PERFORMANCE_REVIEWS = "performance_reviews.csv";
+    /** Files the snapshot is built from, plus the watcher's "*" for lost events. */
+    private static final Set<String> SNAPSHOT_FILES = Set.of(BinarySnapshot.EMPLOYEES,
+            BinarySnapshot.LEAVE_BALANCES, HRDataSnapshot.LEAVE_REQUESTS, "*");
+
+    private final Path dataDir;
+    private final AtomicReference<HRDataSnapshot> snapshot = new AtomicReference<>();
+    private final Map<String, AppendWriter> writers = new ConcurrentHashMap<>();
+    private final IdAllocator leaveRequestIds = new IdAllocator(IdAllocator.LEAVE_PREFIX);
+    private volatile IdAllocator reviewIds;
+    private DataWatcher watcher;
+    /** Set when the leave log and the in-memory rows may disagree; cleared under {@code this}. */
+    private volatile boolean leaveRequestsDiverged;
+    private volatile boolean closed;
+    /** Completes once the last queued leave row is written and its offset applied; guarded by {@code this}. */
+    private CompletableFuture<?> lastLeaveWrite = CompletableFuture.completedFuture(null);
 
     public DataRetriever() {
-        loadEmployees();
-        loadLeaveBalances();
-        loadLeaveRequests();
-    }
-
-    // === LOADERS ===
-    private void loadEmployees() {
-        loadCSV("data/employees.csv", line -> {
-            String[] p = line.split("[,\t]");
-            if (p.length < 7) return;
-
-            String id = p[0].trim();
-            String name = p[1].trim().toLowerCase();
-            idToName.put(id, name);
-            nameToId.put(name, id);
-
-            Map<String, String> info = new HashMap<>();
-            info.put("email", safeGet(p, 2));
-            info.put("jabatan", safeGet(p, 3));
-            info.put("departemen", safeGet(p, 4));
-            info.put("id_manajer", safeGet(p, 5));
-            info.put("tanggal_bergabung", safeGet(p, 6));
-            info.put("status", p.length > 7 ? p[7].trim() : "Aktif");
-            employeeInfo.put(name, info);
-        });
+        this(defaultDataDir());
+    }
+
+    public DataRetriever(Path dataDir) {
+        this.dataDir = dataDir;
+        snapshot.set(HRDataSnapshot.load(dataDir));
+    }
 
-        // Convert manager IDs → names
-        for (String emp : employeeInfo.keySet()) {
-            String managerId = employeeInfo.get(emp).get("id_manajer");
-            String managerName = idToName.getOrDefault(managerId, "Tidak diketahui");
-            employeeToManager.put(emp, managerName);
+    /** Process-wide retriever over the default data directory, loaded once. */
+    public static DataRetriever shared() {
+        DataRetriever r = shared;
+        if (r == null) {
+            synchronized (DataRetriever.class) {
+                r = shared;
+                if (r == null) shared = r = new DataRetriever();
+            }
         }
+        return r;
     }
 
-    private void loadLeaveBalances() {
-        loadCSV("data/leave_balances.csv", line -> {
-            String[] p = line.split("[,\t]");
-            if (p.length < 3) return;
+    public static Path defaultDataDir() {
+        String dir = System.getProperty("hr.data.dir");
+        if (dir != null && !dir.isBlank()) return Paths.get(dir);
+        return Paths.get(System.getProperty("user.dir")).resolve("data");
+    }
 
-            String empId = p[0].trim();
-            String type = p[1].trim().toLowerCase();
-            int days = parseIntSafe(p[2]);
-            String name = idToName.get(empId);
-            if (name != null)
-                leaveBalances.computeIfAbsent(name, k -> new HashMap<>()).put(type, days);
-        });
+    // === SNAPSHOT ===
+    public Path getDataDir() {
+        return dataDir;
+    }
+
+    public HRDataSnapshot snapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Rebuilds every dataset off to the side and swaps the result in. Leave rows still queued
+     * are written first: rebuilt from a file that lacks them, the snapshot would forget them
+     * and let an overlapping request through.
+     */
+    public synchronized void reload() {
+        lastLeaveWrite.handle((pos, error) -> null).join();
+        snapshot.set(HRDataSnapshot.load(dataDir));
+        leaveRequestsDiverged = false;
+    }
+
+    /** Picks up rows appended to leave_requests.csv by other processes, reading only the new tail. */
+    public synchronized void refreshLeaveRequests() {
+        caughtUp();
+    }
+
+    /**
+     * Group-commit writer for a file in the data directory, created on first use. After
+     * {@link #close()} it is a closed writer, so appends fail instead of starting a new one.
+     */
+    public AppendWriter writer(String fileName) {
+        AppendWriter w = closed ? null : writers.computeIfAbsent(fileName, f -> new AppendWriter(dataDir.resolve(f)));
+        // close() may have swept the map between the check and the insert: whoever removes it closes it
+        if (w != null && closed && writers.remove(fileName, w)) w.close();
+        if (w == null || closed) {
+            w = new AppendWriter(dataDir.resolve(fileName));
+            w.close();
+        }
+        return w;
     }
 
-    private void loadLeaveRequests() {
-        leaveRequestStatus.clear();
-        String path = resolvePath("data/leave_requests.csv");
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-            String line;
-            br.readLine(); // skip header
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length < 6) continue;
-
-                String empId = parts[1].trim();
-                String status = parts[5].trim();
-
-                String empName = idToName.getOrDefault(empId, "").toLowerCase();
-                if (!empName.isEmpty()) {
-                    leaveRequestStatus.put(empName, status);
-                } else {
-                }
+    /** Fresh leave-request ID, above every ID in the log (including rows other processes appended). */
+    public String nextLeaveRequestId() {
+        leaveRequestIds.observe(caughtUp().maxLeaveRequestNumber);
+        return leaveRequestIds.next();
+    }
+
+    /** Fresh performance-review ID; the review log is scanned for the highest ID on first use. */
+    public String nextReviewId() {
+        IdAllocator ids = reviewIds;
+        if (ids == null) {
+            synchronized (this) {
+                ids = reviewIds;
+                if (ids == null)
+                    reviewIds = ids = IdAllocator.fromCsv(IdAllocator.REVIEW_PREFIX, dataDir.resolve(PERFORMANCE_REVIEWS));
             }
+        }
+        return ids.next();
+    }
+
+    /**
+     * Appends one row to leave_requests.csv through the group-commit writer and returns
+     * once it is durable. The row is applied to the in-memory index right away.
+     */
+    public void appendLeaveRequest(String csvLine) throws IOException {
+        CompletableFuture<AppendWriter.Position> written;
+        synchronized (this) {
+            caughtUp();
+            written = enqueueLeaveRequest(csvLine);
+        }
+        AppendWriter.await(written);
+    }
+
+    /**
+     * Appends a pending request unless the employee already has an active request sharing a
+     * day with [start, end]. The check, the ID allocation and the in-memory apply happen under
+     * one lock, so two concurrent requests for the same days cannot both pass and a rejected
+     * one uses up no ID; the wait for the disk write does not hold it, so concurrent requests
+     * share a batch.
+     *
+     * @return the conflicting request, or null when the row was written
+     */
+    public LeaveHistory.Request appendLeaveRequestIfFree(String employeeId, String type, LocalDate start,
+                                                         LocalDate end) throws IOException {
+        CompletableFuture<AppendWriter.Position> written;
+        synchronized (this) {
+            HRDataSnapshot current = caughtUp();
+            LeaveHistory.Request conflict = current.leaveHistoryOf(employeeId)
+                    .firstOverlap(start, end, LeaveHistory.Request::isActive);
+            if (conflict != null) return conflict;
+            leaveRequestIds.observe(current.maxLeaveRequestNumber);
+            written = enqueueLeaveRequest(LeaveHistory.Request.csvLine(leaveRequestIds.next(), employeeId, type,
+                    start, end, LeaveHistory.Request.PENDING));
+        }
+        AppendWriter.await(written);
+        return null;
+    }
+
+    /**
+     * Moves a leave request to {@code newStatus} when {@code allowed} accepts its current row.
+     * The change is appended as the request's row with the new status; the check and the
+     * in-memory apply share the lock, so of two concurrent changes only one sees the old status.
+     */
+    private String changeLeaveRequestStatus(String requestId, String newStatus,
+                                            Predicate<LeaveHistory.Request> allowed, String verb) {
+        LeaveHistory.Request request;
+        CompletableFuture<AppendWriter.Position> written;
+        synchronized (this) {
+            HRDataSnapshot current = caughtUp();
+            request = current.leaveRequest(requestId);
+            if (request == null) return "Pengajuan cuti dengan ID " + normalize(requestId).toUpperCase() + " tidak ditemukan.";
+            if (!allowed.test(request))
+                return "Pengajuan " + request.id + " tidak dapat " + verb + " karena statusnya " + request.status + ".";
+            written = enqueueLeaveRequest(request.toCsvLine(newStatus));
+        }
+        try {
+            AppendWriter.await(written);
         } catch (IOException e) {
-            System.out.println("rror loading leave_requests.csv: " + e.getMessage());
+            return "Gagal menyimpan perubahan status " + request.id + ": " + e.getMessage();
         }
+        return "KONFIRMASI: Pengajuan cuti " + request.id + " untuk " + employeeLabel(snapshot.get(), request.employeeId)
+                + " (" + request.start.format(DATE) + " hingga " + request.end.format(DATE) + ") telah " + verb + ".";
+    }
+
+    /**
+     * Current snapshot after tailing rows other processes appended. Skipped while our own
+     * rows are still queued: the file is behind the in-memory state until they land.
+     */
+    private synchronized HRDataSnapshot caughtUp() {
+        HRDataSnapshot current = snapshot.get();
+        // the last row's callback has run, so every earlier one has moved the offset too
+        if (!lastLeaveWrite.isDone()) return current;
+
+        current = leaveRequestsDiverged ? current.withReloadedLeaveRequests() : current.withTailedLeaveRequests();
+        leaveRequestsDiverged = false;
+        snapshot.set(current);
+        return current;
     }
 
+    /**
+     * Applies the row to the caught-up snapshot now, so the next overlap check sees it; the
+     * offset advances once it is written. Called under {@code this}; the write callback only moves the offset and may
+     * run concurrently, so both update the snapshot atomically.
+     */
+    private CompletableFuture<AppendWriter.Position> enqueueLeaveRequest(String csvLine) {
+        snapshot.updateAndGet(s -> s.withAppendedLeaveRequest(csvLine, s.leaveRequestsOffset));
+        CompletableFuture<AppendWriter.Position> written =
+                writer(HRDataSnapshot.LEAVE_REQUESTS).append(csvLine).whenComplete(this::onLeaveRequestWritten);
+        lastLeaveWrite = written;
+        return written;
+    }
+
+    /**
+     * Runs on the writer thread and takes no lock: {@link #close()} waits for that thread
+     * while other threads may hold the monitor.
+     */
+    private void onLeaveRequestWritten(AppendWriter.Position pos, Throwable error) {
+        boolean[] advanced = {false};
+        snapshot.updateAndGet(s -> {
+            advanced[0] = error == null && pos.start == s.leaveRequestsOffset;
+            return advanced[0] ? s.withLeaveRequestsOffset(pos.end) : s;
+        });
+        if (!advanced[0]) leaveRequestsDiverged = true;   // failed write or foreign bytes in between: re-read when idle
+    }
+
+    /** Starts a background watcher that reloads whenever a file under the data directory changes. */
+    public synchronized void startWatching() {
+        if (watcher != null) return;
+        try {
+            watcher = new DataWatcher(dataDir, this::onDataChanged);
+            watcher.start();
+        } catch (IOException e) {
+            System.out.println("⚠️ Gagal memantau folder data: " + e.getMessage());
+        }
+    }
+
+    void onDataChanged(Set<String> changedFiles) {
+        // the snapshot never reads the review log, which we append to ourselves
+        Set<String> loaded = new HashSet<>(changedFiles);
+        loaded.retainAll(SNAPSHOT_FILES);
+        if (loaded.isEmpty()) return;
+        // appends to the leave log are tailed; anything else needs a full rebuild
+        if (loaded.equals(Set.of(HRDataSnapshot.LEAVE_REQUESTS))) refreshLeaveRequests();
+        else reload();
+    }
+
+    public synchronized void stopWatching() {
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+    }
+
+    /**
+     * Stops watching and flushes and closes the append writers; lookups keep working and
+     * later writes fail. The writers are drained outside the monitor, so requests blocked on
+     * it can finish first.
+     */
+    public void close() {
+        closed = true;
+        stopWatching();
+        for (Map.Entry<String, AppendWriter> e : writers.entrySet())
+            if (writers.remove(e.getKey(), e.getValue())) e.getValue().close();
+    }
 
     // === RETRIEVAL ===
     public String getManager(String name) {
+        HRDataSnapshot s = snapshot.get();
         name = normalize(name);
-        for (String emp : employeeToManager.keySet())
-            if (emp.contains(name))
-                return "Manajer " + capitalize(emp) + " adalah " + capitalize(employeeToManager.get(emp)) + ".";
+        int emp = resolve(s, name);
+        if (emp >= 0)
+            return "Manajer " + s.employees.displayName(emp) + " adalah " + managerLabel(s.employees, emp) + "."
+                    + ambiguityNote(s, name, emp);
         return "Tidak ditemukan data manajer untuk " + capitalize(name) + ".";
     }
 
     public String getLeaveBalance(String name) {
+        HRDataSnapshot s = snapshot.get();
+        EmployeeTable t = s.employees;
         name = normalize(name);
-        Map<String, Integer> balances = findEmployeeLeave(name);
-        if (balances == null)
+        int emp = resolve(s, name);
+        if (emp < 0 || t.balanceStart(emp) == t.balanceEnd(emp))
             return "Data cuti untuk " + capitalize(name) + " tidak ditemukan.";
 
         StringBuilder sb = new StringBuilder("Sisa cuti " + capitalize(name) + ":\n");
-        for (Map.Entry<String, Integer> e : balances.entrySet())
-            sb.append("- Cuti ").append(capitalize(e.getKey()))
-              .append(": ").append(e.getValue()).append(" hari\n");
+        for (int r = t.balanceStart(emp); r < t.balanceEnd(emp); r++)
+            sb.append("- Cuti ").append(t.leaveTypeDisplay(r))
+              .append(": ").append(t.days(r)).append(" hari\n");
         return sb.toString();
     }
 
     public String getLeaveByType(String name, String type) {
+        HRDataSnapshot s = snapshot.get();
+        EmployeeTable t = s.employees;
         name = normalize(name);
         type = type.toLowerCase();
 
-        Map<String, Integer> balances = findEmployeeLeave(name);
-        if (balances == null)
+        int emp = resolve(s, name);
+        if (emp < 0 || t.balanceStart(emp) == t.balanceEnd(emp))
             return "Karyawan dengan nama " + capitalize(name) + " tidak ditemukan.";
 
-        Integer days = balances.get(type);
-        return (days != null)
-                ? "Sisa cuti " + capitalize(type) + " " + capitalize(name) + " adalah " + days + " hari."
+        int row = t.balance(emp, type);
+        return (row >= 0)
+                ? "Sisa cuti " + capitalize(type) + " " + capitalize(name) + " adalah " + t.days(row) + " hari."
                 : "Data cuti " + capitalize(type) + " untuk " + capitalize(name) + " tidak ditemukan.";
     }
 
     public String getEmployeeInfo(String name) {
+        HRDataSnapshot s = snapshot.get();
+        EmployeeTable t = s.employees;
         name = normalize(name);
-        for (String emp : employeeInfo.keySet()) {
-            if (emp.contains(name)) {
-                Map<String, String> info = employeeInfo.get(emp);
-                return String.format("""
-                        Informasi Karyawan:
-                        Nama: %s
-                        Jabatan: %s
-                        Departemen: %s
-                        Email: %s
-                        Status: %s
-                        Tanggal Bergabung: %s
-                        Manajer: %s
-                        """,
-                        capitalize(emp),
-                        info.getOrDefault("jabatan", "-"),
-                        info.getOrDefault("departemen", "-"),
-                        info.getOrDefault("email", "-"),
-                        info.getOrDefault("status", "-"),
-                        info.getOrDefault("tanggal_bergabung", "-"),
-                        capitalize(employeeToManager.getOrDefault(emp, "Tidak diketahui"))
-                );
-            }
+        int emp = resolve(s, name);
+        if (emp >= 0) {
+            return String.format("""
+                    Informasi Karyawan:
+                    Nama: %s
+                    Jabatan: %s
+                    Departemen: %s
+                    Email: %s
+                    Status: %s
+                    Tanggal Bergabung: %s
+                    Manajer: %s
+                    """,
+                    t.displayName(emp),
+                    t.title(emp),
+                    t.department(emp),
+                    t.email(emp),
+                    t.status(emp),
+                    t.joinDate(emp),
+                    managerLabel(t, emp)
+            ) + ambiguityNote(s, name, emp);
         }
         return "Karyawan dengan nama " + capitalize(name) + " tidak ditemukan.";
     }
 
     public String getLeaveRequestStatus(String name) {
+        HRDataSnapshot s = snapshot.get();
         name = normalize(name);
-        for (String emp : leaveRequestStatus.keySet()) {
-            if (emp.contains(name)) {
-                String status = leaveRequestStatus.get(emp);
-                return "Status pengajuan cuti terakhir untuk " + capitalize(emp) + " adalah: " + status + ".";
+        int emp = resolve(s, name);
+        // status changes replace the request in place, so the latest is the last one submitted
+        LeaveHistory.Request latest = emp < 0 ? null : s.leaveHistoryOf(s.employees.id(emp)).latest();
+        if (latest != null)
+            return "Status pengajuan cuti terakhir untuk " + s.employees.displayName(emp) + " adalah: " + latest.status + "."
+                    + ambiguityNote(s, name, emp);
+        return "Tidak ada data pengajuan cuti untuk " + capitalize(name) + ".";
+    }
+
+    // === ORG HIERARCHY ===
+    private static final int SUBORDINATE_LIMIT = 50;
+
+    public String getChainOfCommand(String name) {
+        HRDataSnapshot s = snapshot.get();
+        EmployeeTable t = s.employees;
+        name = normalize(name);
+        int emp = resolve(s, name);
+        if (emp < 0) return "Karyawan dengan nama " + capitalize(name) + " tidak ditemukan.";
+
+        List<String> chain = s.orgTree.chainOfCommand(t.id(emp));
+        if (chain.isEmpty())
+            return t.displayName(emp) + " berada di puncak struktur organisasi (tidak memiliki atasan)."
+                    + ambiguityNote(s, name, emp);
+        StringJoiner sj = new StringJoiner(" → ");
+        for (String id : chain) sj.add(t.displayName(t.ordinal(id)));
+        return "Rantai atasan " + t.displayName(emp) + ": " + sj + "." + ambiguityNote(s, name, emp);
+    }
+
+    public String checkReportingLine(String name, String managerName) {
+        HRDataSnapshot s = snapshot.get();
+        EmployeeTable t = s.employees;
+        name = normalize(name);
+        managerName = normalize(managerName);
+        int emp = resolve(s, name);
+        int manager = resolve(s, managerName);
+        if (emp < 0) return "Karyawan dengan nama " + capitalize(name) + " tidak ditemukan.";
+        if (manager < 0) return "Karyawan dengan nama " + capitalize(managerName) + " tidak ditemukan.";
+
+        int levels = s.orgTree.levelsBelow(t.id(emp), t.id(manager));
+        if (levels < 0)
+            return "Tidak, " + t.displayName(emp) + " tidak berada di garis pelaporan " + t.displayName(manager) + ".";
+        return "Ya, " + t.displayName(emp) + " berada di garis pelaporan " + t.displayName(manager)
+                + (levels == 1 ? " (bawahan langsung)." : " (" + levels + " tingkat di bawahnya).");
+    }
+
+    public String getReportCounts(String name) {
+        HRDataSnapshot s = snapshot.get();
+        name = normalize(name);
+        int emp = resolve(s, name);
+        if (emp < 0) return "Karyawan dengan nama " + capitalize(name) + " tidak ditemukan.";
+
+        String id = s.employees.id(emp);
+        return s.employees.displayName(emp) + " memiliki " + s.orgTree.directReportCount(id) + " bawahan langsung dan "
+                + s.orgTree.transitiveReportCount(id) + " bawahan secara keseluruhan."
+                + ambiguityNote(s, name, emp);
+    }
+
+    /** Everyone below the employee as an indented org chart, capped at {@value #SUBORDINATE_LIMIT} lines. */
+    public String getSubordinates(String name) {
+        HRDataSnapshot s = snapshot.get();
+        EmployeeTable t = s.employees;
+        name = normalize(name);
+        int emp = resolve(s, name);
+        if (emp < 0) return "Karyawan dengan nama " + capitalize(name) + " tidak ditemukan.";
+
+        String id = t.id(emp);
+        List<String> subordinates = s.orgTree.subordinates(id);
+        if (subordinates.isEmpty()) return t.displayName(emp) + " tidak memiliki bawahan." + ambiguityNote(s, name, emp);
+
+        int base = s.orgTree.depth(id);
+        StringBuilder sb = new StringBuilder("Bawahan " + t.displayName(emp) + " (" + subordinates.size() + " orang):\n");
+        for (String sub : subordinates.subList(0, Math.min(SUBORDINATE_LIMIT, subordinates.size()))) {
+            int e = t.ordinal(sub);
+            sb.append("  ".repeat(s.orgTree.depth(sub) - base - 1))
+              .append("- ").append(t.displayName(e))
+              .append(" (").append(t.title(e)).append(")\n");
+        }
+        if (subordinates.size() > SUBORDINATE_LIMIT)
+            sb.append("... dan ").append(subordinates.size() - SUBORDINATE_LIMIT).append(" lainnya\n");
+        return sb + ambiguityNote(s, name, emp);
+    }
+
+    // === LEAVE AGGREGATES ===
+    /**
+     * Days left and open requests, from {@link LeaveAggregates}: per department for one leave
+     * type, per leave type for one department or the whole company, or per leave type for a
+     * manager's team when {@code managerName} is given.
+     */
+    public String getLeaveSummary(String type, String department, String managerName) {
+        HRDataSnapshot s = snapshot.get();
+        EmployeeTable t = s.employees;
+        LeaveAggregates a = s.leaveAggregates;
+        type = normalize(type);
+        int code = t.leaveTypeCode(type);
+        if (!type.isEmpty() && code < 0) return "Jenis cuti " + capitalize(type) + " tidak dikenal.";
+
+        if (!normalize(managerName).isEmpty()) {
+            managerName = normalize(managerName);
+            int manager = resolve(s, managerName);
+            if (manager < 0) return "Karyawan dengan nama " + capitalize(managerName) + " tidak ditemukan.";
+            StringBuilder sb = new StringBuilder("Rekap sisa cuti tim " + t.displayName(manager)
+                    + " (" + a.teamSize(manager) + " orang):\n");
+            for (int c = 0; c < a.types(); c++) {
+                if (code >= 0 ? c != code : a.teamHolders(manager, c) == 0) continue;
+                sb.append(summaryLine(t.leaveTypeName(c), a.teamDays(manager, c), a.teamHolders(manager, c),
+                        a.teamExhausted(manager, c).length));
             }
+            return sb + "Pengajuan menunggu persetujuan: " + a.teamPending(manager) + " ("
+                    + a.teamPendingDays(manager) + " hari)\n" + ambiguityNote(s, managerName, manager);
         }
-        return "Tidak ada data pengajuan cuti untuk " + capitalize(name) + ".";
+
+        int dept = -1;
+        if (!normalize(department).isEmpty()) {
+            dept = a.department(department.trim());
+            if (dept < 0) return unknownDepartment(a, department);
+        }
+        StringBuilder sb = new StringBuilder();
+        if (code >= 0) {
+            sb.append("Rekap sisa cuti ").append(t.leaveTypeName(code)).append(" per departemen:\n");
+            for (int d = 0; d < a.departments(); d++) {
+                if (dept >= 0 && d != dept) continue;
+                sb.append(summaryLine(a.departmentName(d), a.days(d, code), a.holders(d, code), a.exhausted(d, code).length))
+                  .append(pendingLine(a.pending(d, code), a.pendingDays(d, code), a.approvedDays(d, code)));
+            }
+            return sb.toString();
+        }
+
+        sb.append("Rekap sisa cuti ").append(dept >= 0 ? a.departmentName(dept) : "seluruh karyawan")
+          .append(" per jenis cuti:\n");
+        for (int c = 0; c < a.types(); c++) {
+            long days = 0;
+            int holders = 0, exhausted = 0, pending = 0;
+            long pendingDays = 0, approvedDays = 0;
+            for (int d = 0; d < a.departments(); d++) {
+                if (dept >= 0 && d != dept) continue;
+                days += a.days(d, c);
+                holders += a.holders(d, c);
+                exhausted += a.exhausted(d, c).length;
+                pending += a.pending(d, c);
+                pendingDays += a.pendingDays(d, c);
+                approvedDays += a.approvedDays(d, c);
+            }
+            if (holders == 0 && pending == 0 && approvedDays == 0) continue;
+            sb.append(summaryLine(t.leaveTypeName(c), days, holders, exhausted))
+              .append(pendingLine(pending, pendingDays, approvedDays));
+        }
+        return sb.toString();
     }
 
+    /** Employees with no days of the leave type left, in a department, a manager's team or the whole company. */
+    public String getExhaustedLeave(String type, String department, String managerName) {
+        HRDataSnapshot s = snapshot.get();
+        EmployeeTable t = s.employees;
+        LeaveAggregates a = s.leaveAggregates;
+        type = normalize(type);
+        int code = t.leaveTypeCode(type);
+        if (code < 0) return "Jenis cuti " + capitalize(type) + " tidak dikenal.";
+
+        String scope;
+        int[] exhausted;
+        String note = "";
+        if (!normalize(managerName).isEmpty()) {
+            managerName = normalize(managerName);
+            int manager = resolve(s, managerName);
+            if (manager < 0) return "Karyawan dengan nama " + capitalize(managerName) + " tidak ditemukan.";
+            scope = " di tim " + t.displayName(manager);
+            exhausted = a.teamExhausted(manager, code);
+            note = ambiguityNote(s, managerName, manager);
+        } else if (!normalize(department).isEmpty()) {
+            int dept = a.department(department.trim());
+            if (dept < 0) return unknownDepartment(a, department);
+            scope = " di " + a.departmentName(dept);
+            exhausted = a.exhausted(dept, code);
+        } else {
+            scope = "";
+            List<Integer> all = new ArrayList<>();
+            for (int d = 0; d < a.departments(); d++) for (int e : a.exhausted(d, code)) all.add(e);
+            Collections.sort(all);
+            exhausted = all.stream().mapToInt(Integer::intValue).toArray();
+        }
 
-    public List<String> getAllEmployees() {
-        List<String> names = new ArrayList<>(employeeInfo.keySet());
-        names.sort(String::compareTo);
-        return names;
+        String what = scope + " yang sisa cuti " + t.leaveTypeName(code) + "-nya habis";
+        if (exhausted.length == 0) return "Tidak ada karyawan" + what + "." + note;
+        StringBuilder sb = new StringBuilder("Karyawan" + what + " (" + exhausted.length + " orang):\n");
+        for (int i = 0; i < Math.min(SUBORDINATE_LIMIT, exhausted.length); i++)
+            sb.append("- ").append(t.displayName(exhausted[i])).append(" (").append(t.department(exhausted[i])).append(")\n");
+        if (exhausted.length > SUBORDINATE_LIMIT)
+            sb.append("... dan ").append(exhausted.length - SUBORDINATE_LIMIT).append(" lainnya\n");
+        return sb + note;
     }
 
-    // === HELPERS ===
-    private void loadCSV(String relativePath, CSVLineProcessor processor) {
-        String path = resolvePath(relativePath);
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-            br.readLine(); // skip header
-            String line;
-            while ((line = br.readLine()) != null)
-                processor.process(line);
-        } catch (IOException e) {
-            System.out.println("⚠️ Error loading " + relativePath + ": " + e.getMessage());
+    private static String summaryLine(String label, long days, int holders, int exhausted) {
+        return String.format("- %s: %d hari untuk %d karyawan (rata-rata %.1f hari), %d sudah habis%n",
+                label, days, holders, holders == 0 ? 0.0 : (double) days / holders, exhausted);
+    }
+
+    private static String pendingLine(int pending, long pendingDays, long approvedDays) {
+        return String.format("  %d pengajuan menunggu persetujuan (%d hari), %d hari sudah disetujui%n",
+                pending, pendingDays, approvedDays);
+    }
+
+    private static String unknownDepartment(LeaveAggregates a, String department) {
+        StringJoiner known = new StringJoiner(", ");
+        for (int d = 0; d < a.departments(); d++) known.add(a.departmentName(d));
+        return "Departemen " + EmployeeTable.display(department.trim()) + " tidak ditemukan. Departemen yang ada: " + known + ".";
+    }
+
+    // === AVAILABILITY ===
+    private static final int COVERAGE_DAYS_LIMIT = 31;
+
+    /** Who in the department, the manager's team or the company has approved or pending leave in [from, to]. */
+    public String getWhoIsOut(LocalDate from, LocalDate to, String department, String managerName) {
+        HRDataSnapshot s = snapshot.get();
+        EmployeeTable t = s.employees;
+        String invalid = checkPeriod(from, to);
+        if (invalid != null) return invalid;
+        Scope scope = scope(s, department, managerName);
+        if (scope.error != null) return scope.error;
+
+        BitSet out = s.availability.away(from, to);
+        out.and(scope.members);
+        String when = period(from, to);
+        if (out.isEmpty()) return "Tidak ada karyawan" + scope.label + " yang cuti " + when + "." + scope.note;
+
+        StringBuilder sb = new StringBuilder("Karyawan" + scope.label + " yang cuti " + when
+                + " (" + out.cardinality() + " orang):\n");
+        int listed = 0;
+        for (int e = out.nextSetBit(0); e >= 0 && listed < SUBORDINATE_LIMIT; e = out.nextSetBit(e + 1), listed++) {
+            StringJoiner requests = new StringJoiner("; ");
+            for (LeaveHistory.Request r : s.leaveHistoryOf(t.id(e)).overlapping(from, to))
+                if (r.isActive())
+                    requests.add(r.id + " " + r.type + " " + period(r.start, r.end) + " (" + r.status + ")");
+            sb.append("- ").append(t.displayName(e)).append(" (").append(t.department(e)).append("): ")
+              .append(requests).append('\n');
+        }
+        if (out.cardinality() > SUBORDINATE_LIMIT)
+            sb.append("... dan ").append(out.cardinality() - SUBORDINATE_LIMIT).append(" lainnya\n");
+        return sb + scope.note;
+    }
+
+    /** How many of the department, team or company are present on each day of [from, to]. */
+    public String getTeamCoverage(LocalDate from, LocalDate to, String department, String managerName) {
+        HRDataSnapshot s = snapshot.get();
+        EmployeeTable t = s.employees;
+        String invalid = checkPeriod(from, to);
+        if (invalid != null) return invalid;
+        if (to.toEpochDay() - from.toEpochDay() >= COVERAGE_DAYS_LIMIT)
+            return "Kehadiran hanya dapat dihitung per hari untuk paling lama " + COVERAGE_DAYS_LIMIT + " hari.";
+        Scope scope = scope(s, department, managerName);
+        if (scope.error != null) return scope.error;
+
+        int size = scope.members.cardinality();
+        StringBuilder sb = new StringBuilder("Kehadiran" + (scope.label.isEmpty() ? " seluruh karyawan" : scope.label)
+                + " (" + size + " orang) " + period(from, to) + ":\n");
+        BitSet anyDay = new BitSet();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            BitSet away = s.availability.away(day, day);
+            away.and(scope.members);
+            anyDay.or(away);
+            int present = size - away.cardinality();
+            sb.append(String.format("- %s: %d dari %d hadir (%d%%)%n", day.format(DATE), present, size,
+                    size == 0 ? 100 : Math.round(100.0 * present / size)));
+        }
+        if (!anyDay.isEmpty()) {
+            StringJoiner names = new StringJoiner(", ");
+            for (int e = anyDay.nextSetBit(0); e >= 0; e = anyDay.nextSetBit(e + 1)) names.add(t.displayName(e));
+            sb.append("Cuti: ").append(names).append('\n');
+        }
+        return sb + scope.note;
+    }
+
+    /** Members of a department, of a manager's team (the manager included) or of the whole company. */
+    private Scope scope(HRDataSnapshot s, String department, String managerName) {
+        managerName = normalize(managerName);
+        if (!managerName.isEmpty()) {
+            int manager = resolve(s, managerName);
+            if (manager < 0) return Scope.error("Karyawan dengan nama " + capitalize(managerName) + " tidak ditemukan.");
+            return new Scope(s.availability.team(manager), " di tim " + s.employees.displayName(manager),
+                    ambiguityNote(s, managerName, manager));
+        }
+        if (!normalize(department).isEmpty()) {
+            int dept = s.leaveAggregates.department(department.trim());
+            if (dept < 0) return Scope.error(unknownDepartment(s.leaveAggregates, department));
+            return new Scope(s.availability.department(dept), " di " + s.leaveAggregates.departmentName(dept), "");
+        }
+        return new Scope(s.availability.all(), "", "");
+    }
+
+    private static String checkPeriod(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) return "Tanggal akhir tidak boleh sebelum tanggal mulai.";
+        if (to.toEpochDay() - from.toEpochDay() >= AvailabilityIndex.MAX_DAYS)
+            return "Rentang tanggal paling lama " + AvailabilityIndex.MAX_DAYS + " hari.";
+        return null;
+    }
+
+    private static String period(LocalDate from, LocalDate to) {
+        return from.equals(to) ? "pada " + from.format(DATE) : from.format(DATE) + " hingga " + to.format(DATE);
+    }
+
+    private static final class Scope {
+        final BitSet members;
+        final String label;
+        final String note;
+        final String error;
+
+        Scope(BitSet members, String label, String note) {
+            this(members, label, note, null);
         }
+
+        private Scope(BitSet members, String label, String note, String error) {
+            this.members = members;
+            this.label = label;
+            this.note = note;
+            this.error = error;
+        }
+
+        static Scope error(String message) {
+            return new Scope(null, "", "", message);
+        }
+    }
+
+    // === LEAVE REQUESTS BY ID ===
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("d MMMM yyyy");
+
+    public String getLeaveRequest(String requestId) {
+        HRDataSnapshot s = snapshot.get();
+        LeaveHistory.Request r = s.leaveRequest(requestId);
+        if (r == null) return "Pengajuan cuti dengan ID " + normalize(requestId).toUpperCase() + " tidak ditemukan.";
+        return String.format("""
+                Pengajuan Cuti %s:
+                Karyawan: %s
+                Jenis: %s
+                Tanggal: %s hingga %s
+                Status: %s
+                """,
+                r.id, employeeLabel(s, r.employeeId), r.type,
+                r.start.format(DATE), r.end.format(DATE), r.status);
+    }
+
+    /** Approves a request that is still waiting for approval. */
+    public String approveLeaveRequest(String requestId) {
+        return changeLeaveRequestStatus(requestId, LeaveHistory.Request.APPROVED,
+                LeaveHistory.Request::isPending, "disetujui");
     }
 
+    /** Cancels a request that has not been rejected or cancelled already. */
+    public String cancelLeaveRequest(String requestId) {
+        return changeLeaveRequestStatus(requestId, LeaveHistory.Request.CANCELLED,
+                LeaveHistory.Request::isActive, "dibatalkan");
+    }
+
+    /** All employee names containing the partial name, best match first. */
+    public List<String> findCandidates(String partialName) {
+        return snapshot.get().nameIndex.find(normalize(partialName));
+    }
+
+    /** Whether the name is an employee's full name or whole words of one, ignoring case. */
+    public boolean isKnownName(String name) {
+        return snapshot.get().nameIndex.containsWords(normalize(name));
+    }
+
+    /** Distinct employee names, sorted. */
+    public List<String> getAllEmployees() {
+        return new ArrayList<>(new TreeSet<>(Arrays.asList(snapshot.get().employees.names)));
+    }
+
+    // === HELPERS ===
     private String normalize(String str) {
         return str == null ? "" : str.toLowerCase().trim();
     }
 
     private String capitalize(String str) {
-        if (str == null || str.isEmpty()) return "-";
-        String[] words = str.split("\\s+");
-        StringBuilder sb = new StringBuilder();
-        for (String w : words)
-            if (!w.isEmpty())
-                sb.append(Character.toUpperCase(w.charAt(0))).append(w.substring(1).toLowerCase()).append(" ");
-        return sb.toString().trim();
+        return str == null || str.isEmpty() ? "-" : EmployeeTable.display(str);
     }
 
-    private String safeGet(String[] arr, int idx) {
-        return idx < arr.length ? arr[idx].trim() : "";
+    private String employeeLabel(HRDataSnapshot s, String employeeId) {
+        int emp = s.employees.ordinal(employeeId);
+        return emp < 0 ? "karyawan tidak dikenal (" + employeeId + ")" : s.employees.displayName(emp);
     }
 
-    private int parseIntSafe(String s) {
-        try { return Integer.parseInt(s.trim()); }
-        catch (Exception e) { return 0; }
+    private String managerLabel(EmployeeTable t, int emp) {
+        int manager = t.manager(emp);
+        return manager < 0 ? "Tidak Diketahui" : t.displayName(manager);
     }
 
-    private Map<String, Integer> findEmployeeLeave(String name) {
-        for (String emp : leaveBalances.keySet())
-            if (emp.contains(name)) return leaveBalances.get(emp);
-        return null;
+    /** Ordinal of the best match for the name (the first in file order among homonyms), or -1. */
+    private int resolve(HRDataSnapshot s, String name) {
+        String best = name.isEmpty() ? null : s.nameIndex.best(name);
+        return best == null ? -1 : s.employees.first(best);
     }
 
-    private String resolvePath(String relativePath) {
-        Path base = Paths.get(System.getProperty("user.dir"));
-        return base.resolve(relativePath).toString();
+    /** Other names matching the query, and other employees sharing the chosen name (with their IDs). */
+    private String ambiguityNote(HRDataSnapshot s, String query, int chosen) {
+        EmployeeTable t = s.employees;
+        String chosenName = t.name(chosen);
+        List<String> others = new ArrayList<>();
+        int total = 0;
+        for (int e : t.withName(chosenName))
+            if (e != chosen && total++ < 5) others.add(t.displayName(e) + " (" + t.id(e) + ")");
+        if (!chosenName.equals(query))
+            for (String c : s.nameIndex.find(query))
+                if (!c.equals(chosenName) && total++ < 5) others.add(capitalize(c));
+        if (total == 0) return "";
+        if (total > others.size())
+            others.add((total - others.size()) + " lainnya");
+        return "\n(Nama \"" + query + "\" juga cocok dengan: " + String.join(", ", others) + ")";
     }
 
     public String findEmployeeIdByPartialName(String partialName) {
         if (partialName == null || partialName.isEmpty()) return "-";
-        String lower = partialName.toLowerCase().trim();
-
-        // Cari partial match
-        for (Map.Entry<String, String> entry : nameToId.entrySet()) {
-            String nameKey = entry.getKey().toLowerCase();
-            if (nameKey.contains(lower)) {
-                return entry.getValue();
-            }
-        }
-        return "-";
+        HRDataSnapshot s = snapshot.get();
+        int emp = resolve(s, normalize(partialName));
+        return emp < 0 ? "-" : s.employees.id(emp);
     }
 
-    public void refreshLeaveRequests() {
-        leaveRequestStatus.clear();
-        loadLeaveRequests();
+    /** Display name of the employee the partial name resolves to; the name capitalized when it matches no one. */
+    public String displayName(String partialName) {
+        HRDataSnapshot s = snapshot.get();
+        int emp = resolve(s, normalize(partialName));
+        return emp < 0 ? EmployeeTable.display(normalize(partialName)) : s.employees.displayName(emp);
     }
 
-    @FunctionalInterface
-    private interface CSVLineProcessor {
-        void process(String line);
+    /** Display name of a leave type from leave_balances.csv; the type capitalized when it is not one. */
+    public String leaveTypeName(String type) {
+        EmployeeTable t = snapshot.get().employees;
+        int code = t.leaveTypeCode(normalize(type));
+        return code < 0 ? EmployeeTable.display(normalize(type)) : t.leaveTypeName(code);
     }
 }
\ No newline at end of file
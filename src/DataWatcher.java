@@ -0,0 +1,80 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches a data directory and hands the names of changed CSV files to a callback.
+ * Bursts of events (editors often write a file in several steps) are coalesced
+ * into a single reload once the directory has been quiet for a short while.
+ */
+public class DataWatcher implements AutoCloseable {
+
+    private static final long DEBOUNCE_MILLIS = 300;
+
+    private final Path dir;
+    private final Consumer<Set<String>> onChange;
+    private final WatchService watchService;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public DataWatcher(Path dir, Consumer<Set<String>> onChange) throws IOException {
+        this.dir = dir;
+        this.onChange = onChange;
+        this.watchService = dir.getFileSystem().newWatchService();
+        dir.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        this.thread = new Thread(this::run, "hr-data-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                WatchKey key = watchService.take();
+                Set<String> changed = new HashSet<>();
+                drain(key, changed);
+
+                // keep absorbing events until the directory settles
+                WatchKey next;
+                while ((next = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null)
+                    drain(next, changed);
+
+                if (!changed.isEmpty()) onChange.accept(changed);
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            } catch (RuntimeException e) {
+                System.out.println("⚠️ Gagal memuat ulang data dari " + dir + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void drain(WatchKey key, Set<String> changed) {
+        for (WatchEvent<?> event : key.pollEvents()) {
+            Object context = event.context();
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW)
+                changed.add("*");
+            else if (context != null && context.toString().endsWith(".csv"))
+                changed.add(context.toString());
+        }
+        key.reset();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            watchService.close();
+        } catch (IOException ignored) {
+        }
+        thread.interrupt();
+    }
+}
@@ -0,0 +1,345 @@
+import java.util.*;
+
+/**
+ * Columnar store of every employee and their leave balances.
+ *
+ * Employees are numbered 0..n-1 in file order (their ordinal) and each attribute is an
+ * array indexed by ordinal. Job titles, departments, statuses and leave types are
+ * dictionary-encoded: a row holds an int code into a small array of distinct values, so
+ * 100k employees in six departments share six department strings. Balances are stored
+ * CSR-style: employee {@code i} owns rows {@code [balanceStart[i], balanceStart[i + 1])}
+ * of two int arrays, with no per-employee map. Display forms of names and leave types
+ * are computed once when the table is built.
+ *
+ * Employees with the same name keep their own rows; {@link #withName} returns all of them.
+ */
+public final class EmployeeTable {
+
+    private static final int[] NONE = new int[0];
+
+    final String[] ids;
+    final String[] names;
+    final String[] emails;
+    final String[] joinDates;
+    final String[] managerIds;
+    final int[] title;
+    final String[] titles;
+    final int[] department;
+    final String[] departments;
+    final int[] status;
+    final String[] statuses;
+    final int[] balanceStart;
+    final int[] balanceType;
+    final int[] balanceDays;
+    final String[] leaveTypes;
+
+    private final String[] displayNames;
+    private final String[] leaveTypeDisplay;
+    private final int[] manager;
+    private final Map<String, Integer> ordinals;
+    private final Map<String, int[]> byName;
+    private final Map<String, Integer> leaveTypeCodes;
+
+    /** Takes ownership of the arrays; see {@link Builder} and {@link BinarySnapshot}. */
+    EmployeeTable(String[] ids, String[] names, String[] emails, String[] joinDates, String[] managerIds,
+                  int[] title, String[] titles, int[] department, String[] departments,
+                  int[] status, String[] statuses,
+                  int[] balanceStart, int[] balanceType, int[] balanceDays, String[] leaveTypes) {
+        this.ids = ids;
+        this.names = names;
+        this.emails = emails;
+        this.joinDates = joinDates;
+        this.managerIds = managerIds;
+        this.title = title;
+        this.titles = titles;
+        this.department = department;
+        this.departments = departments;
+        this.status = status;
+        this.statuses = statuses;
+        this.balanceStart = balanceStart;
+        this.balanceType = balanceType;
+        this.balanceDays = balanceDays;
+        this.leaveTypes = leaveTypes;
+
+        int n = ids.length;
+        ordinals = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) ordinals.put(ids[i], i);
+
+        Map<String, int[]> byName = new HashMap<>(n * 2);
+        displayNames = new String[n];
+        manager = new int[n];
+        for (int i = 0; i < n; i++) {
+            displayNames[i] = display(names[i]);
+            Integer m = ordinals.get(managerIds[i]);
+            manager[i] = m == null ? -1 : m;
+            int[] same = byName.get(names[i]);
+            if (same == null) {
+                byName.put(names[i], new int[]{i});
+            } else {
+                same = Arrays.copyOf(same, same.length + 1);
+                same[same.length - 1] = i;
+                byName.put(names[i], same);
+            }
+        }
+        this.byName = byName;
+
+        leaveTypeDisplay = new String[leaveTypes.length];
+        leaveTypeCodes = new HashMap<>(leaveTypes.length * 2);
+        for (int t = 0; t < leaveTypes.length; t++) {
+            leaveTypeDisplay[t] = display(leaveTypes[t]);
+            leaveTypeCodes.put(leaveTypes[t], t);
+        }
+    }
+
+    // === EMPLOYEES ===
+    public int size() {
+        return ids.length;
+    }
+
+    /** Ordinal of an employee ID, or -1. */
+    public int ordinal(String id) {
+        Integer i = id == null ? null : ordinals.get(id);
+        return i == null ? -1 : i;
+    }
+
+    /** Ordinals of every employee with this lowercase name, in file order. */
+    public int[] withName(String name) {
+        return byName.getOrDefault(name, NONE);
+    }
+
+    /** The first employee with this lowercase name, or -1. */
+    public int first(String name) {
+        int[] same = withName(name);
+        return same.length == 0 ? -1 : same[0];
+    }
+
+    public String id(int e) {
+        return ids[e];
+    }
+
+    /** Lowercase name as indexed by {@link NameIndex}. */
+    public String name(int e) {
+        return names[e];
+    }
+
+    /** Name with every word capitalized, for replies. */
+    public String displayName(int e) {
+        return displayNames[e];
+    }
+
+    public String email(int e) {
+        return emails[e];
+    }
+
+    public String joinDate(int e) {
+        return joinDates[e];
+    }
+
+    public String title(int e) {
+        return titles[title[e]];
+    }
+
+    public String department(int e) {
+        return departments[department[e]];
+    }
+
+    public String status(int e) {
+        return statuses[status[e]];
+    }
+
+    /** Manager ordinal, or -1 when the manager column is empty or names an unknown ID. */
+    public int manager(int e) {
+        return manager[e];
+    }
+
+    // === LEAVE BALANCES ===
+    /** First balance row of the employee; rows run up to {@link #balanceEnd}. */
+    public int balanceStart(int e) {
+        return balanceStart[e];
+    }
+
+    public int balanceEnd(int e) {
+        return balanceStart[e + 1];
+    }
+
+    /** Code of a lowercase leave type, an index into {@link #leaveTypes}, or -1. */
+    public int leaveTypeCode(String type) {
+        Integer code = type == null ? null : leaveTypeCodes.get(type);
+        return code == null ? -1 : code;
+    }
+
+    public String leaveTypeName(int code) {
+        return leaveTypeDisplay[code];
+    }
+
+    /** Balance row of this lowercase leave type, or -1 when the employee has none. */
+    public int balance(int e, String type) {
+        int code = leaveTypeCode(type);
+        if (code < 0) return -1;
+        for (int r = balanceStart[e]; r < balanceStart[e + 1]; r++)
+            if (balanceType[r] == code) return r;
+        return -1;
+    }
+
+    public String leaveTypeDisplay(int row) {
+        return leaveTypeDisplay[balanceType[row]];
+    }
+
+    /** Leave type code of a balance row. */
+    public int leaveType(int row) {
+        return balanceType[row];
+    }
+
+    public int days(int row) {
+        return balanceDays[row];
+    }
+
+    // === HELPERS ===
+    /** Capitalizes every whitespace-separated word and joins them with single spaces. */
+    static String display(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        boolean wordStart = true;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.isWhitespace(c)) {
+                wordStart = true;
+                continue;
+            }
+            if (wordStart && sb.length() > 0) sb.append(' ');
+            sb.append(wordStart ? Character.toUpperCase(c) : Character.toLowerCase(c));
+            wordStart = false;
+        }
+        return sb.toString();
+    }
+
+    /** Accumulates CSV rows; a repeated employee ID or (employee, leave type) pair replaces the earlier one. */
+    static final class Builder {
+        private final Map<String, Integer> ordinals = new HashMap<>();
+        private final List<String> ids = new ArrayList<>();
+        private final List<String> names = new ArrayList<>();
+        private final List<String> emails = new ArrayList<>();
+        private final List<String> joinDates = new ArrayList<>();
+        private final List<String> managerIds = new ArrayList<>();
+        private final IntList title = new IntList();
+        private final IntList department = new IntList();
+        private final IntList status = new IntList();
+        private final Interner titles = new Interner();
+        private final Interner departments = new Interner();
+        private final Interner statuses = new Interner();
+        private final Interner leaveTypes = new Interner();
+        private final IntList balanceOwner = new IntList();
+        private final IntList balanceType = new IntList();
+        private final IntList balanceDays = new IntList();
+
+        void addEmployee(String id, String name, String email, String jobTitle, String dept,
+                         String managerId, String joinDate, String employeeStatus) {
+            Integer existing = ordinals.get(id);
+            int e = existing == null ? ids.size() : existing;
+            if (existing == null) {
+                ordinals.put(id, e);
+                ids.add(id);
+                names.add(name);
+                emails.add(email);
+                joinDates.add(joinDate);
+                managerIds.add(managerId);
+                title.add(titles.code(jobTitle));
+                department.add(departments.code(dept));
+                status.add(statuses.code(employeeStatus));
+            } else {
+                names.set(e, name);
+                emails.set(e, email);
+                joinDates.set(e, joinDate);
+                managerIds.set(e, managerId);
+                title.set(e, titles.code(jobTitle));
+                department.set(e, departments.code(dept));
+                status.set(e, statuses.code(employeeStatus));
+            }
+        }
+
+        /** Ignored for unknown employee IDs, so employees must be added first. */
+        void addBalance(String employeeId, String type, int days) {
+            Integer e = ordinals.get(employeeId);
+            if (e == null) return;
+            balanceOwner.add(e);
+            balanceType.add(leaveTypes.code(type));
+            balanceDays.add(days);
+        }
+
+        EmployeeTable build() {
+            int n = ids.size();
+            // counting sort by owner keeps each employee's rows in file order
+            int[] start = new int[n + 1];
+            for (int i = 0; i < balanceOwner.size; i++) start[balanceOwner.values[i] + 1]++;
+            for (int e = 0; e < n; e++) start[e + 1] += start[e];
+            int[] fill = Arrays.copyOf(start, n);
+            int[] type = new int[balanceOwner.size];
+            int[] days = new int[balanceOwner.size];
+            for (int i = 0; i < balanceOwner.size; i++) {
+                int at = fill[balanceOwner.values[i]]++;
+                type[at] = balanceType.values[i];
+                days[at] = balanceDays.values[i];
+            }
+
+            // collapse repeated types per employee: first position, last value
+            int[] compactStart = new int[n + 1];
+            int out = 0;
+            for (int e = 0; e < n; e++) {
+                compactStart[e] = out;
+                for (int r = start[e]; r < start[e + 1]; r++) {
+                    int dup = -1;
+                    for (int k = compactStart[e]; k < out; k++) if (type[k] == type[r]) dup = k;
+                    if (dup >= 0) {
+                        days[dup] = days[r];
+                    } else {
+                        type[out] = type[r];
+                        days[out++] = days[r];
+                    }
+                }
+            }
+            compactStart[n] = out;
+
+            return new EmployeeTable(ids.toArray(new String[0]), names.toArray(new String[0]),
+                    emails.toArray(new String[0]), joinDates.toArray(new String[0]),
+                    managerIds.toArray(new String[0]),
+                    title.toArray(), titles.values(), department.toArray(), departments.values(),
+                    status.toArray(), statuses.values(),
+                    compactStart, Arrays.copyOf(type, out), Arrays.copyOf(days, out), leaveTypes.values());
+        }
+    }
+
+    /** Distinct strings in first-seen order. */
+    private static final class Interner {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int code(String s) {
+            Integer c = codes.get(s);
+            if (c != null) return c;
+            codes.put(s, values.size());
+            values.add(s);
+            return values.size() - 1;
+        }
+
+        String[] values() {
+            return values.toArray(new String[0]);
+        }
+    }
+
+    private static final class IntList {
+        int[] values = new int[16];
+        int size;
+
+        void add(int v) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = v;
+        }
+
+        void set(int i, int v) {
+            values[i] = v;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
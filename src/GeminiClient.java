@@ -0,0 +1,267 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.*;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Non-blocking client for the Gemini generateContent endpoint.
+ *
+ * Each call gets an overall deadline, retryable failures (429/5xx, I/O errors, timeouts)
+ * are retried with jittered exponential backoff while the deadline allows, and a circuit breaker stops calling
+ * the API altogether while it keeps failing. Every attempt first takes a token from a
+ * {@link RateLimiter} sized to the quota; attempts it sheds fail with
+ * {@link RateLimiter.ShedException} without reaching the API. Settings come from system properties:
+ *
+ *   hr.gemini.http              "2" (default) or "1.1"
+ *   hr.gemini.connectTimeoutMs  TCP/TLS connect timeout, default 3000
+ *   hr.gemini.requestTimeoutMs  per-attempt timeout, default 10000
+ *   hr.gemini.deadlineMs        whole call including retries, default 20000
+ *   hr.gemini.maxRetries        default 3
+ *   hr.gemini.backoffMs         base backoff, default 200
+ *   hr.gemini.breakerFailures   consecutive failures that open the breaker, default 5
+ *   hr.gemini.breakerOpenMs     how long the breaker stays open, default 30000
+ *   hr.gemini.rpm               requests per minute allowed out, default 1000 (0 = unlimited)
+ *   hr.gemini.burst             requests that may go out back to back, default 50
+ *   hr.gemini.maxQueue          attempts waiting for a token before new ones are shed, default 100
+ *   hr.gemini.maxQueueWaitMs    longest expected wait for a token before shedding, default 2000
+ */
+public class GeminiClient {
+
+    private static final Set<Integer> RETRYABLE_STATUS = Set.of(408, 429, 500, 502, 503, 504);
+
+    /** Non-2xx reply from the API. */
+    public static class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        ApiException(int status, String body) {
+            super("Gemini API Error: " + status + " - " + body);
+            this.status = status;
+        }
+    }
+
+    private final URI endpoint;
+    private final HttpClient client;
+    private final CircuitBreaker breaker;
+    private final RateLimiter limiter;
+    private final Duration requestTimeout;
+    private final long deadlineMillis;
+    private final int maxRetries;
+    private final long backoffMillis;
+
+    public GeminiClient(String endpoint) {
+        this.endpoint = URI.create(endpoint);
+        this.requestTimeout = Duration.ofMillis(Long.getLong("hr.gemini.requestTimeoutMs", 10_000L));
+        this.deadlineMillis = Long.getLong("hr.gemini.deadlineMs", 20_000L);
+        this.maxRetries = Integer.getInteger("hr.gemini.maxRetries", 3);
+        this.backoffMillis = Long.getLong("hr.gemini.backoffMs", 200L);
+        this.breaker = new CircuitBreaker("gemini",
+                Integer.getInteger("hr.gemini.breakerFailures", 5),
+                Long.getLong("hr.gemini.breakerOpenMs", 30_000L));
+        this.limiter = new RateLimiter("gemini",
+                Integer.getInteger("hr.gemini.rpm", 1000),
+                Integer.getInteger("hr.gemini.burst", 50),
+                Integer.getInteger("hr.gemini.maxQueue", 100),
+                Long.getLong("hr.gemini.maxQueueWaitMs", 2_000L));
+        Metrics.get().gauge("gemini.queue_depth", limiter::queueDepth);
+
+        // one client per process: keeps connections (and HTTP/2 streams) alive between calls
+        this.client = HttpClient.newBuilder()
+                .version("1.1".equals(System.getProperty("hr.gemini.http"))
+                        ? HttpClient.Version.HTTP_1_1 : HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(Long.getLong("hr.gemini.connectTimeoutMs", 3_000L)))
+                .build();
+    }
+
+    // === CALLS ===
+    /**
+     * Sends one user turn under the template's system instruction and completes with the
+     * first candidate's text.
+     */
+    public CompletableFuture<String> generate(RequestTemplate template, String userText) {
+        byte[] body = template.body(userText);
+        Metrics.get().recordSize("gemini.request_bytes", body.length);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(endpoint)
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        return attempt(request, 0, deadline).orTimeout(deadlineMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * generateContent body with a fixed system instruction, serialized once. Per call only
+     * the JSON-escaped user text is copied between the prebuilt head and tail bytes.
+     */
+    public static final class RequestTemplate {
+        private static final String SLOT = "\u0001user\u0001";
+
+        private final byte[] head;
+        private final byte[] tail;
+
+        public RequestTemplate(String systemInstruction) {
+            JSONObject body = new JSONObject()
+                    .put("systemInstruction", new JSONObject()
+                            .put("parts", new JSONArray().put(new JSONObject().put("text", systemInstruction))))
+                    .put("contents", new JSONArray()
+                            .put(new JSONObject()
+                                    .put("role", "user")
+                                    .put("parts", new JSONArray().put(new JSONObject().put("text", SLOT)))));
+            String json = body.toString();
+            String slot = JSONObject.quote(SLOT);
+            int at = json.indexOf(slot);
+            head = json.substring(0, at + 1).getBytes(StandardCharsets.UTF_8);
+            tail = json.substring(at + slot.length() - 1).getBytes(StandardCharsets.UTF_8);
+        }
+
+        byte[] body(String userText) {
+            byte[] text = escape(userText).getBytes(StandardCharsets.UTF_8);
+            byte[] body = new byte[head.length + text.length + tail.length];
+            System.arraycopy(head, 0, body, 0, head.length);
+            System.arraycopy(text, 0, body, head.length, text.length);
+            System.arraycopy(tail, 0, body, head.length + text.length, tail.length);
+            return body;
+        }
+
+        /** Contents of a JSON string literal for {@code s}, without the surrounding quotes. */
+        static String escape(String s) {
+            StringBuilder sb = null;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                String esc = switch (c) {
+                    case '"' -> "\\\"";
+                    case '\\' -> "\\\\";
+                    case '\n' -> "\\n";
+                    case '\r' -> "\\r";
+                    case '\t' -> "\\t";
+                    default -> c < 0x20 ? String.format("\\u%04x", (int) c) : null;
+                };
+                if (esc == null) {
+                    if (sb != null) sb.append(c);
+                } else {
+                    if (sb == null) sb = new StringBuilder(s.length() + 16).append(s, 0, i);
+                    sb.append(esc);
+                }
+            }
+            return sb == null ? s : sb.toString();
+        }
+    }
+
+    public CircuitBreaker.State getBreakerState() {
+        return breaker.getState();
+    }
+
+    /** Waits for a rate-limiter token, then sends, unless the call's deadline passed meanwhile. */
+    private CompletableFuture<String> attempt(HttpRequest request, int retry, long deadline) {
+        Metrics metrics = Metrics.get();
+        long queued = System.nanoTime();
+        return limiter.acquire()
+                .whenComplete((granted, shed) -> {
+                    if (shed != null) metrics.increment("gemini.shed");
+                    else metrics.recordSince("gemini_queue", null, queued);
+                })
+                .thenCompose(granted -> System.nanoTime() - deadline >= 0
+                        ? CompletableFuture.<String>failedFuture(new TimeoutException("deadline Gemini terlewati"))
+                        : send(request, retry, deadline));
+    }
+
+    private CompletableFuture<String> send(HttpRequest request, int retry, long deadline) {
+        Metrics metrics = Metrics.get();
+        try {
+            breaker.acquire();
+        } catch (CircuitBreaker.OpenException e) {
+            metrics.increment("gemini.breaker_rejected");
+            return CompletableFuture.failedFuture(e);
+        }
+
+        long started = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .handle((response, error) -> {
+                    metrics.recordSince("gemini_attempt", null, started);
+                    if (response != null) {
+                        metrics.increment("gemini.http_status." + response.statusCode());
+                        metrics.recordSize("gemini.response_bytes", response.body().getBytes(StandardCharsets.UTF_8).length);
+                    } else {
+                        metrics.increment("gemini.http_error." + unwrap(error).getClass().getSimpleName());
+                    }
+
+                    if (error == null && response.statusCode() == 200) {
+                        breaker.onSuccess();
+                        return CompletableFuture.completedFuture(extractText(response.body()));
+                    }
+
+                    Throwable failure = error != null
+                            ? unwrap(error)
+                            : new ApiException(response.statusCode(), response.body());
+                    boolean retryable = isRetryable(failure);
+                    // a rejected request says nothing about the API's health, but must still end a half-open trial
+                    if (retryable) breaker.onFailure();
+                    else breaker.release();
+                    if (!retryable || retry >= maxRetries)
+                        return CompletableFuture.<String>failedFuture(failure);
+
+                    // a retry that would start after the deadline only burns a token
+                    long delay = backoff(retry, response);
+                    if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay) - deadline >= 0)
+                        return CompletableFuture.<String>failedFuture(failure);
+
+                    metrics.increment("gemini.retry");
+                    Executor later = CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS);
+                    return CompletableFuture.supplyAsync(() -> null, later)
+                            .thenCompose(ignored -> attempt(request, retry + 1, deadline));
+                })
+                .thenCompose(f -> f);
+    }
+
+    // === HELPERS ===
+    private static String extractText(String body) {
+        try {
+            JSONObject json = new JSONObject(body);
+            JSONArray candidates = json.getJSONArray("candidates");
+            JSONObject content = candidates.getJSONObject(0).getJSONObject("content");
+            JSONArray parts = content.getJSONArray("parts");
+            return parts.getJSONObject(0).getString("text");
+        } catch (JSONException e) {
+            throw new RuntimeException("Invalid response format: " + e.getMessage());
+        }
+    }
+
+    private static boolean isRetryable(Throwable failure) {
+        if (failure instanceof ApiException api) return RETRYABLE_STATUS.contains(api.status);
+        return failure instanceof IOException;
+    }
+
+    /** Full-jitter exponential backoff, honouring a numeric Retry-After header when present. */
+    private long backoff(int retry, HttpResponse<String> response) {
+        if (response != null) {
+            var retryAfter = response.headers().firstValue("Retry-After");
+            if (retryAfter.isPresent()) {
+                try {
+                    return Math.min(Long.parseLong(retryAfter.get().trim()) * 1000, deadlineMillis);
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+        long cap = backoffMillis << Math.min(retry, 10);
+        return ThreadLocalRandom.current().nextLong(backoffMillis / 2, cap + 1);
+    }
+
+    static Throwable unwrap(Throwable t) {
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null)
+            t = t.getCause();
+        return t;
+    }
+}
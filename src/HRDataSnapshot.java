@@ -0,0 +1,235 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Immutable view of every HR dataset under a data directory.
+ * A snapshot is fully built before it is published, so readers holding a
+ * reference never observe a half-loaded state. Updates produce a new snapshot.
+ */
+public final class HRDataSnapshot {
+
+    static final String LEAVE_REQUESTS = "leave_requests.csv";
+
+    final Path dataDir;
+    final EmployeeTable employees;
+    final Map<String, LeaveHistory> leaveHistory;
+    /** Request ID → its latest row; for IDs the old random allocator handed out twice, the last one. */
+    final Map<String, LeaveHistory.Request> leaveRequestsById;
+    /** Highest numeric part of any "LR" ID seen, for {@link IdAllocator}. */
+    final long maxLeaveRequestNumber;
+    final long leaveRequestsOffset;
+    final NameIndex nameIndex;
+    final OrgTree orgTree;
+    final LeaveAggregates leaveAggregates;
+    final AvailabilityIndex availability;
+
+    private HRDataSnapshot(Path dataDir,
+                           EmployeeTable employees,
+                           Map<String, LeaveHistory> leaveHistory,
+                           Map<String, LeaveHistory.Request> leaveRequestsById,
+                           long maxLeaveRequestNumber,
+                           long leaveRequestsOffset,
+                           NameIndex nameIndex,
+                           OrgTree orgTree,
+                           LeaveAggregates leaveAggregates,
+                           AvailabilityIndex availability) {
+        this.dataDir = dataDir;
+        this.employees = employees;
+        this.leaveHistory = leaveHistory;
+        this.leaveRequestsById = leaveRequestsById;
+        this.maxLeaveRequestNumber = maxLeaveRequestNumber;
+        this.leaveRequestsOffset = leaveRequestsOffset;
+        this.nameIndex = nameIndex;
+        this.orgTree = orgTree;
+        this.leaveAggregates = leaveAggregates;
+        this.availability = availability;
+    }
+
+    // === FACTORIES ===
+    /** The precompiled {@link BinarySnapshot} when enabled and current, otherwise the CSVs. */
+    public static HRDataSnapshot load(Path dataDir) {
+        return BinarySnapshot.enabled() ? BinarySnapshot.loadOrCompile(dataDir) : fromCsv(dataDir);
+    }
+
+    /** Parses every CSV under the directory. */
+    public static HRDataSnapshot fromCsv(Path dataDir) {
+        EmployeeTable.Builder builder = new EmployeeTable.Builder();
+        loadEmployees(dataDir, builder);
+        loadLeaveBalances(dataDir, builder);
+        EmployeeTable employees = builder.build();
+
+        List<LeaveHistory.Request> requests = new ArrayList<>();
+        long leaveRequestsOffset = tailLeaveRequests(dataDir, requests, 0);
+
+        return of(dataDir, employees,
+                appendHistory(Map.of(), requests), indexById(Map.of(), requests), leaveRequestsOffset,
+                new NameIndex(Arrays.asList(employees.names)));
+    }
+
+    /** Freezes already-decoded datasets into a snapshot; see {@link BinarySnapshot}. */
+    static HRDataSnapshot of(Path dataDir,
+                             EmployeeTable employees,
+                             Map<String, LeaveHistory> leaveHistory,
+                             Map<String, LeaveHistory.Request> leaveRequestsById,
+                             long leaveRequestsOffset,
+                             NameIndex nameIndex) {
+        OrgTree orgTree = new OrgTree(employees);
+        return new HRDataSnapshot(dataDir,
+                employees,
+                Map.copyOf(leaveHistory),
+                Map.copyOf(leaveRequestsById),
+                maxRequestNumber(0, leaveRequestsById.keySet()),
+                leaveRequestsOffset,
+                nameIndex,
+                orgTree,
+                LeaveAggregates.build(employees, orgTree, leaveHistory),
+                AvailabilityIndex.build(employees, orgTree, leaveHistory));
+    }
+
+    /**
+     * Picks up rows appended to leave_requests.csv since this snapshot was built,
+     * reading only the bytes past {@link #leaveRequestsOffset}. Falls back to a
+     * full re-read when the file has shrunk (rewritten or truncated).
+     */
+    public HRDataSnapshot withTailedLeaveRequests() {
+        long size;
+        try {
+            size = Files.size(dataDir.resolve(LEAVE_REQUESTS));
+        } catch (IOException e) {
+            return this;
+        }
+        if (size == leaveRequestsOffset) return this;
+
+        if (size < leaveRequestsOffset) return withReloadedLeaveRequests();
+
+        List<LeaveHistory.Request> requests = new ArrayList<>();
+        long offset = tailLeaveRequests(dataDir, requests, leaveRequestsOffset);
+        return withLeaveRequests(requests, false, offset);
+    }
+
+    /** Discards the leave rows held in memory and parses leave_requests.csv from the start. */
+    public HRDataSnapshot withReloadedLeaveRequests() {
+        List<LeaveHistory.Request> requests = new ArrayList<>();
+        long offset = tailLeaveRequests(dataDir, requests, 0);
+        return withLeaveRequests(requests, true, offset);
+    }
+
+    /** Same data, with the leave log known to be consumed up to {@code offset}. */
+    HRDataSnapshot withLeaveRequestsOffset(long offset) {
+        return new HRDataSnapshot(dataDir, employees, leaveHistory, leaveRequestsById, maxLeaveRequestNumber,
+                offset, nameIndex, orgTree, leaveAggregates, availability);
+    }
+
+    /** Applies a row this process has appended (or is about to) and records the new end offset. */
+    public HRDataSnapshot withAppendedLeaveRequest(String line, long newOffset) {
+        List<LeaveHistory.Request> requests = new ArrayList<>();
+        CsvReader.parseLine(line, row -> applyLeaveRequest(row, requests));
+        return withLeaveRequests(requests, false, newOffset);
+    }
+
+    /** Applies {@code requests} on top of this snapshot's rows, or on nothing when {@code replace}. */
+    private HRDataSnapshot withLeaveRequests(List<LeaveHistory.Request> requests, boolean replace, long offset) {
+        Map<String, LeaveHistory> history = appendHistory(replace ? Map.of() : leaveHistory, requests);
+        Map<String, LeaveHistory.Request> byId = indexById(replace ? Map.of() : leaveRequestsById, requests);
+        List<String> addedIds = new ArrayList<>(requests.size());
+        Set<String> changed = new HashSet<>();
+        for (LeaveHistory.Request r : requests) {
+            addedIds.add(r.id);
+            changed.add(r.employeeId);
+        }
+        LeaveAggregates aggregates = replace
+                ? LeaveAggregates.build(employees, orgTree, history)
+                : leaveAggregates.withHistories(leaveHistory, history, changed);
+        AvailabilityIndex away = replace
+                ? AvailabilityIndex.build(employees, orgTree, history)
+                : availability.withHistories(leaveHistory, history, changed);
+        return new HRDataSnapshot(dataDir, employees, Map.copyOf(history), Map.copyOf(byId),
+                maxRequestNumber(replace ? 0 : maxLeaveRequestNumber, addedIds), offset, nameIndex, orgTree,
+                aggregates, away);
+    }
+
+    /** Leave history of an employee ID, empty when they never requested leave. */
+    LeaveHistory leaveHistoryOf(String employeeId) {
+        return employeeId == null ? LeaveHistory.EMPTY : leaveHistory.getOrDefault(employeeId, LeaveHistory.EMPTY);
+    }
+
+    /** Latest row of the leave request with this ID (case-insensitive), or null. */
+    LeaveHistory.Request leaveRequest(String requestId) {
+        return requestId == null ? null : leaveRequestsById.get(requestId.trim().toUpperCase(Locale.ROOT));
+    }
+
+    // === LOADERS ===
+    private static void loadEmployees(Path dataDir, EmployeeTable.Builder builder) {
+        loadCSV(dataDir, "employees.csv", row -> {
+            if (row.size() < 7) return;
+
+            String status = row.get(7);
+            builder.addEmployee(row.get(0), row.get(1).toLowerCase(), row.get(2), row.get(3), row.get(4),
+                    row.get(5), row.get(6), status.isEmpty() ? "Aktif" : status);
+        });
+    }
+
+    private static void loadLeaveBalances(Path dataDir, EmployeeTable.Builder builder) {
+        loadCSV(dataDir, "leave_balances.csv", row -> {
+            if (row.size() < 3) return;
+            builder.addBalance(row.get(0), row.get(1).toLowerCase(), row.getInt(2, 0));
+        });
+    }
+
+    /**
+     * Parses complete records of leave_requests.csv starting at byte offset {@code from}
+     * (0 means the header is skipped) and returns the offset just past the last full record.
+     */
+    private static long tailLeaveRequests(Path dataDir, List<LeaveHistory.Request> requests, long from) {
+        try {
+            return CsvReader.read(dataDir.resolve(LEAVE_REQUESTS), from, true, true,
+                    row -> applyLeaveRequest(row, requests));
+        } catch (IOException e) {
+            System.out.println("⚠️ Error loading " + LEAVE_REQUESTS + ": " + e.getMessage());
+            return from;
+        }
+    }
+
+    /** Rows that are too short or carry unreadable dates are skipped. */
+    private static void applyLeaveRequest(CsvReader.Row row, List<LeaveHistory.Request> requests) {
+        LeaveHistory.Request request = LeaveHistory.Request.parse(row);
+        if (request != null) requests.add(request);
+    }
+
+    /** Copy of {@code base} with the requests applied to each employee's history in file order. */
+    static Map<String, LeaveHistory> appendHistory(Map<String, LeaveHistory> base,
+                                                   List<LeaveHistory.Request> requests) {
+        if (requests.isEmpty()) return base;
+        Map<String, List<LeaveHistory.Request>> byEmployee = new HashMap<>();
+        for (LeaveHistory.Request r : requests)
+            byEmployee.computeIfAbsent(r.employeeId, k -> new ArrayList<>()).add(r);
+        Map<String, LeaveHistory> merged = new HashMap<>(base);
+        byEmployee.forEach((empId, added) ->
+                merged.put(empId, merged.getOrDefault(empId, LeaveHistory.EMPTY).with(added)));
+        return merged;
+    }
+
+    /** Copy of {@code base} where each request ID maps to its last row. */
+    static Map<String, LeaveHistory.Request> indexById(Map<String, LeaveHistory.Request> base,
+                                                       List<LeaveHistory.Request> requests) {
+        if (requests.isEmpty()) return base;
+        Map<String, LeaveHistory.Request> merged = new HashMap<>(base);
+        for (LeaveHistory.Request r : requests) merged.put(r.id, r);
+        return merged;
+    }
+
+    private static long maxRequestNumber(long max, Collection<String> ids) {
+        for (String id : ids) max = Math.max(max, IdAllocator.number(IdAllocator.LEAVE_PREFIX, id));
+        return max;
+    }
+
+    // === HELPERS ===
+    private static void loadCSV(Path dataDir, String fileName, CsvReader.RowHandler handler) {
+        try {
+            CsvReader.read(dataDir.resolve(fileName), 0, true, false, handler);
+        } catch (IOException e) {
+            System.out.println("⚠️ Error loading " + fileName + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out request IDs ("LR869", "LR870", ...) that only ever increase.
+ *
+ * The counter starts above the highest ID already in the data and is bumped with one
+ * atomic increment per ID, so concurrent callers never get the same value. IDs are
+ * zero-padded to three digits like the existing rows and simply grow wider past 999.
+ */
+public final class IdAllocator {
+
+    static final String LEAVE_PREFIX = "LR";
+    static final String REVIEW_PREFIX = "PR";
+
+    private final String prefix;
+    private final AtomicLong last = new AtomicLong();
+
+    public IdAllocator(String prefix) {
+        this.prefix = prefix;
+    }
+
+    /** Allocator seeded from the highest ID in the first column of a CSV file. */
+    static IdAllocator fromCsv(String prefix, Path file) {
+        IdAllocator ids = new IdAllocator(prefix);
+        try {
+            CsvReader.read(file, 0, true, false, row -> ids.observe(row.get(0)));
+        } catch (IOException e) {
+            System.out.println("⚠️ Error loading " + file.getFileName() + ": " + e.getMessage());
+        }
+        return ids;
+    }
+
+    public String next() {
+        return prefix + String.format("%03d", last.incrementAndGet());
+    }
+
+    /** Makes sure later IDs sort above {@code id}; IDs with another prefix are ignored. */
+    public void observe(String id) {
+        observe(number(prefix, id));
+    }
+
+    public void observe(long number) {
+        if (number > last.get()) last.accumulateAndGet(number, Math::max);
+    }
+
+    /** Numeric part of an ID such as "LR042", or -1 when it does not have the prefix. */
+    static long number(String prefix, String id) {
+        if (id == null || id.length() <= prefix.length() || id.length() > prefix.length() + 18
+                || !id.regionMatches(true, 0, prefix, 0, prefix.length()))
+            return -1;
+        long n = 0;
+        for (int i = prefix.length(); i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            n = n * 10 + (c - '0');
+        }
+        return n;
+    }
+}
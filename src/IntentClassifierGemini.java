@@ -1,9 +1,7 @@
-import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -16,119 +14,281 @@ public class IntentClassifierGemini {
     private static final String ENDPOINT =
         "https://generativelanguage.googleapis.com/v1/models/" + MODEL + ":generateContent?key=" + API_KEY;
 
-    private final HttpClient client = HttpClient.newHttpClient();
+    private final GeminiClient gemini;
+    private final LocalIntentClassifier localClassifier;
+    private final ClassificationCache cache = new ClassificationCache();
+    /** Normalized input → its Gemini classification still in progress, shared by identical queries. */
+    private final Map<String, CompletableFuture<ParsedIntent>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Names the local templates extract are answered locally only when they are (whole words
+     * of) an employee's name in {@code retriever}; other tenants' employees are then
+     * classified by the LLM.
+     */
+    public IntentClassifierGemini(DataRetriever retriever) {
+        // -Dhr.gemini.endpoint points the agent at another server, e.g. StubGeminiServer
+        this(System.getProperty("hr.gemini.endpoint", ENDPOINT), retriever);
+    }
+
+    /** @param endpoint generateContent URL, e.g. a local stub server */
+    public IntentClassifierGemini(String endpoint, DataRetriever retriever) {
+        this(endpoint, new LocalIntentClassifier(retriever::isKnownName));
+    }
+
+    /** Without a directory to check names against: every name the local templates extract is taken as known. */
+    public IntentClassifierGemini(String endpoint) {
+        this(endpoint, new LocalIntentClassifier());
+    }
+
+    private IntentClassifierGemini(String endpoint, LocalIntentClassifier localClassifier) {
+        this.gemini = new GeminiClient(endpoint);
+        this.localClassifier = localClassifier;
+    }
     // === STRUCT ===
+    /**
+     * One classified request, or for a compound query ("sisa cuti budi dan rina", "info budi
+     * lalu siapa manajernya") an intent of {@value #COMPOUND} whose {@link #parts} are the
+     * individual requests in the order they were asked.
+     */
     public static class ParsedIntent {
+        public static final String COMPOUND = "compound";
+
         public String intent;
         public Map<String, String> entities;
+        public List<ParsedIntent> parts = List.of();
 
         public ParsedIntent(String intent, Map<String, String> entities) {
             this.intent = intent;
             this.entities = entities;
         }
+
+        /** The single part itself when there is only one. */
+        public static ParsedIntent of(List<ParsedIntent> parts) {
+            if (parts.size() == 1) return parts.get(0);
+            ParsedIntent compound = new ParsedIntent(COMPOUND, new HashMap<>());
+            compound.parts = List.copyOf(parts);
+            return compound;
+        }
+
+        /** Inverse of {@link #toJson()}, e.g. for {@link SessionRecorder} logs. */
+        public static ParsedIntent fromJson(JSONObject json) {
+            JSONArray parts = json.optJSONArray("parts");
+            if (parts != null && !parts.isEmpty()) {
+                List<ParsedIntent> list = new ArrayList<>(parts.length());
+                for (int i = 0; i < parts.length(); i++) list.add(fromJson(parts.getJSONObject(i)));
+                return of(list);
+            }
+            Map<String, String> entities = new HashMap<>();
+            JSONObject e = json.optJSONObject("entities");
+            if (e != null) for (String k : e.keySet()) entities.put(k, e.optString(k, ""));
+            return new ParsedIntent(json.optString("intent", "unknown"), entities);
+        }
+
+        public boolean isCompound() {
+            return !parts.isEmpty();
+        }
+
+        public JSONObject toJson() {
+            JSONObject json = new JSONObject().put("intent", intent).put("entities", new JSONObject(entities));
+            if (isCompound()) {
+                JSONArray arr = new JSONArray();
+                for (ParsedIntent p : parts) arr.put(p.toJson());
+                json.put("parts", arr);
+            }
+            return json;
+        }
     }
 
     // === MAIN LOGIC ===
     public ParsedIntent parse(String input) {
-        try {
-            String prompt = buildPrompt(input);
-            String response = callGemini(prompt);
-            return parseLLMResponse(response);
-        } catch (Exception e) {
-            System.out.println("Fallback triggered: " + e.getMessage());
-            return new ParsedIntent("unknown", new HashMap<>());
-        }
+        return parseAsync(input).join();
     }
 
-    // === PROMPT BUILDER ===
-    private String buildPrompt(String input) {
-        return """
-        Kamu adalah asisten HR digital yang menganalisis perintah pengguna dan mengembalikan JSON valid.
-        Jangan tambahkan teks lain di luar JSON.
+    /** Non-blocking variant of {@link #parse(String)}; never completes exceptionally. */
+    public CompletableFuture<ParsedIntent> parseAsync(String input) {
+        Metrics metrics = Metrics.get();
+        long started = System.nanoTime();
+
+        // templated commands are answered locally; only ambiguous input goes to Gemini
+        ParsedIntent local = localClassifier.classify(input);
+        if (local != null) {
+            metrics.recordSince("local_classify", local.intent, started);
+            metrics.increment("classify.local");
+            return CompletableFuture.completedFuture(local);
+        }
 
-        Format output yang harus kamu gunakan:
-        {
-          "intent": "get_manager|get_leave_balance|get_employee_info|apply_leave|schedule_review|check_leave_status|submit_expense|lookup_colleague|help|unknown",
-          "name": "<nama_karyawan>",
-          "type": "<jenis_cuti>",
-          "start_date": "<YYYY-MM-DD>",
-          "end_date": "<YYYY-MM-DD>",
-          "reviewer": "<nama_reviewer>",
-          "date": "<YYYY-MM-DD>",
-          "category": "<kategori_expense>",
-          "amount": "<nominal>"
+        ParsedIntent cached = cache.get(input);
+        if (cached != null) {
+            metrics.increment("classify.cache_hit");
+            return CompletableFuture.completedFuture(cached);
         }
 
-        Contoh:
-        Input: "siapa manajer rina"
-        Output: {"intent":"get_manager","name":"rina"}
+        // identical queries arriving together (e.g. after a broadcast) share one Gemini call
+        String key = ClassificationCache.normalize(input);
+        CompletableFuture<ParsedIntent> call = new CompletableFuture<>();
+        CompletableFuture<ParsedIntent> shared = inFlight.putIfAbsent(key, call);
+        if (shared != null) {
+            metrics.increment("classify.coalesced");
+            return shared.thenApply(ClassificationCache::copy);
+        }
+        classifyRemote(input).whenComplete((parsed, e) -> {
+            inFlight.remove(key, call);
+            call.complete(e == null ? parsed : fallback(input, e));
+        });
+        return call.thenApply(ClassificationCache::copy);
+    }
 
-        Input: "cek status pengajuan cuti rina"
-        Output: {"intent":"check_leave_status","name":"rina"}
+    /** One Gemini round trip; never completes exceptionally. */
+    private CompletableFuture<ParsedIntent> classifyRemote(String input) {
+        Metrics metrics = Metrics.get();
+        long promptStart = System.nanoTime();
+        String prompt = buildPrompt(input);
+        long promptNanos = System.nanoTime() - promptStart;
 
-        Input: "ajukan cuti sakit untuk budi dari 2025-10-03 sampai 2025-10-05"
-        Output: {"intent":"apply_leave","name":"budi","type":"sakit","start_date":"2025-10-03","end_date":"2025-10-05"}
+        long httpStart = System.nanoTime();
+        return gemini.generate(REQUEST, prompt)
+                .thenApply(response -> {
+                    long parseStart = System.nanoTime();
+                    ParsedIntent parsed = parseLLMResponse(response);
+                    String intent = ActionExecutor.metricIntent(parsed.intent);
+                    metrics.recordNanos("prompt_build", intent, promptNanos);
+                    metrics.recordNanos("gemini_http", intent, parseStart - httpStart);
+                    metrics.recordSince("response_parse", intent, parseStart);
+                    metrics.increment("classify.gemini");
+                    cache.put(input, parsed);
+                    return parsed;
+                })
+                .exceptionally(e -> fallback(input, e));
+    }
 
-        Input: "jadwalkan review performa untuk rina dengan santi pada 2025-10-15"
-        Output: {"intent":"schedule_review","name":"rina","reviewer":"santi","date":"2025-10-15"}
+    /** When Gemini is slow, failing or the breaker is open, accept a weaker local match. */
+    private ParsedIntent fallback(String input, Throwable e) {
+        System.err.println("Fallback triggered: " + GeminiClient.unwrap(e).getMessage());
+        Metrics.get().increment("fallback");
+        ParsedIntent degraded = localClassifier.classify(input, LocalIntentClassifier.DEGRADED_THRESHOLD);
+        return degraded != null ? degraded : new ParsedIntent("unknown", new HashMap<>());
+    }
 
-        Input: "ajukan expense rina makan 150000"
-        Output: {"intent":"submit_expense","name":"rina","category":"makan","amount":"150000"}
+    /**
+     * Classifies many inputs, packing the ones that need the LLM into multi-input prompts
+     * of at most {@code batchSize} entries. Replies are matched to inputs by position, so a
+     * reply with more or fewer elements than the batch is discarded as a whole; those
+     * entries, and ones whose element is not an object, are retried one by one through
+     * {@link #parse(String)}.
+     */
+    public List<ParsedIntent> parseBatch(List<String> inputs, int batchSize) {
+        ParsedIntent[] results = new ParsedIntent[inputs.size()];
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            ParsedIntent local = localClassifier.classify(inputs.get(i));
+            if (local == null) local = cache.get(inputs.get(i));
+            if (local != null) results[i] = local;
+            else pending.add(i);
+        }
 
-        Input: "cari info rekan kerja budi"
-        Output: {"intent":"lookup_colleague","name":"budi"}
+        for (int from = 0; from < pending.size(); from += batchSize) {
+            List<Integer> chunk = pending.subList(from, Math.min(from + batchSize, pending.size()));
+            List<String> chunkInputs = new ArrayList<>();
+            for (int idx : chunk) chunkInputs.add(inputs.get(idx));
 
-        Input: "help"
-        Output: {"intent":"help"}
+            List<ParsedIntent> parsed = List.of();
+            try {
+                parsed = parseLLMBatchResponse(callGemini(buildBatchPrompt(chunkInputs)), chunk.size());
+            } catch (Exception e) {
+                System.err.println("Batch fallback triggered: " + e.getMessage());
+            }
 
-        Sekarang analisis:
-        Input: "%s"
-        """.formatted(input);
+            for (int j = 0; j < chunk.size(); j++) {
+                int idx = chunk.get(j);
+                ParsedIntent p = j < parsed.size() ? parsed.get(j) : null;
+                if (p == null) {
+                    results[idx] = parse(inputs.get(idx));
+                } else {
+                    cache.put(inputs.get(idx), p);
+                    results[idx] = p;
+                }
+            }
+        }
+        return Arrays.asList(results);
     }
 
-    // === CALL GEMINI API ===
-    private String callGemini(String prompt) throws IOException, InterruptedException {
-        JSONObject requestBody = new JSONObject()
-                .put("contents", new JSONArray()
-                        .put(new JSONObject()
-                                .put("parts", new JSONArray()
-                                        .put(new JSONObject().put("text", prompt)))));
+    public ClassificationCache getCache() {
+        return cache;
+    }
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(ENDPOINT))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(requestBody.toString()))
-                .build();
+    // === PROMPT BUILDER ===
+    /**
+     * Fixed part of every request, sent as the system instruction. It is serialized into
+     * {@link #REQUEST} once; a call only adds its input line, so the per-call payload is a
+     * few dozen bytes plus this constant prefix (which Gemini can cache implicitly).
+     */
+    static final String SYSTEM_INSTRUCTION = """
+        Kamu asisten HR yang mengubah perintah pengguna menjadi JSON valid, tanpa teks lain.
+        Intent: get_manager, get_leave_balance, get_employee_info, apply_leave, schedule_review, check_leave_status, \
+        submit_expense, lookup_colleague, get_chain_of_command, check_reporting_line, count_reports, list_subordinates, \
+        get_leave_request, approve_leave, cancel_leave, leave_summary, leave_exhausted, who_is_out, team_coverage, \
+        help, unknown.
+        Field (isi hanya yang disebut): name, manager, type (jenis cuti), start_date, end_date, date (YYYY-MM-DD), \
+        reviewer, category, amount (angka), request_id (mis. LR003), department, \
+        period (hari ini, besok, lusa, minggu ini, minggu depan, bulan ini, bulan depan; jangan diubah menjadi tanggal).
+        Satu Input => satu objek JSON. Beberapa Input bernomor => satu JSON array berisi tepat satu objek per input, \
+        sesuai urutan nomor.
+        Input yang berisi beberapa permintaan atau beberapa nama => {"intents":[objek, ...]} sesuai urutan; \
+        kata ganti seperti "-nya" merujuk ke nama sebelumnya.
+        Contoh (intent lain mengikuti pola yang sama):
+        Input: "cek status pengajuan cuti rina" => {"intent":"check_leave_status","name":"rina"}
+        Input: "ajukan cuti sakit untuk budi dari 2025-10-03 sampai 2025-10-05" => \
+        {"intent":"apply_leave","name":"budi","type":"sakit","start_date":"2025-10-03","end_date":"2025-10-05"}
+        Input: "jadwalkan review performa untuk rina dengan santi pada 2025-10-15" => \
+        {"intent":"schedule_review","name":"rina","reviewer":"santi","date":"2025-10-15"}
+        Input: "ajukan expense rina makan 150000" => {"intent":"submit_expense","name":"rina","category":"makan","amount":"150000"}
+        Input: "cari info rekan kerja budi" => {"intent":"lookup_colleague","name":"budi"}
+        Input: "apakah budi bawahan santi" => {"intent":"check_reporting_line","name":"budi","manager":"santi"}
+        Input: "info budi lalu siapa manajernya" => \
+        {"intents":[{"intent":"get_employee_info","name":"budi"},{"intent":"get_manager","name":"budi"}]}
+        Input: "siapa saja di tim andre" => {"intent":"list_subordinates","name":"andre"}
+        Input: "setujui pengajuan cuti LR006" => {"intent":"approve_leave","request_id":"LR006"}
+        Input: "total sisa cuti tahunan per departemen" => {"intent":"leave_summary","type":"tahunan"}
+        Input: "siapa di tim santi yang cutinya habis" => {"intent":"leave_exhausted","manager":"santi"}
+        Input: "siapa di departemen produk yang cuti minggu depan" => {"intent":"who_is_out","department":"produk","period":"minggu depan"}
+        Input: "berapa anggota tim santi yang masuk pada 2025-12-15" => {"intent":"team_coverage","manager":"santi","date":"2025-12-15"}
+        """;
 
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+    private static final GeminiClient.RequestTemplate REQUEST = new GeminiClient.RequestTemplate(SYSTEM_INSTRUCTION);
 
-        String body = response.body();
-        if (response.statusCode() != 200) {
-            throw new RuntimeException("Gemini API Error: " + response.statusCode() + " - " + body);
-        }
+    /** User turn for one input; quoting keeps quotes and newlines in the input from breaking the line. */
+    static String buildPrompt(String input) {
+        return "Input: " + JSONObject.quote(input);
+    }
+
+    static String buildBatchPrompt(List<String> inputs) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < inputs.size(); i++)
+            sb.append(i + 1).append(". Input: ").append(JSONObject.quote(inputs.get(i))).append('\n');
+        return sb.toString();
+    }
 
-        // Extract text safely
+    // === CALL GEMINI API ===
+    private String callGemini(String prompt) {
         try {
-            JSONObject json = new JSONObject(body);
-            JSONArray candidates = json.getJSONArray("candidates");
-            JSONObject content = candidates.getJSONObject(0).getJSONObject("content");
-            JSONArray parts = content.getJSONArray("parts");
-            return parts.getJSONObject(0).getString("text");
-        } catch (JSONException e) {
-            throw new RuntimeException("Invalid response format: " + e.getMessage());
+            return gemini.generate(REQUEST, prompt).join();
+        } catch (CompletionException e) {
+            Throwable cause = GeminiClient.unwrap(e);
+            throw cause instanceof RuntimeException re ? re : new RuntimeException(cause.getMessage(), cause);
         }
     }
 
+    public GeminiClient getClient() {
+        return gemini;
+    }
+
     // === PARSE GEMINI RESPONSE TO JSON ===
     private ParsedIntent parseLLMResponse(String rawText) {
         try {
-            // clean up formatting from LLM
-            String text = rawText.replaceAll("(?s)```json", "")
-                                 .replaceAll("(?s)```", "")
-                                 .trim();
+            String text = stripFences(rawText);
 
             // find JSON braces if response includes text
-            if (!text.trim().startsWith("{")) {
+            if (!text.startsWith("{")) {
                 int start = text.indexOf("{");
                 int end = text.lastIndexOf("}");
                 if (start >= 0 && end > start) {
@@ -138,21 +298,77 @@ public class IntentClassifierGemini {
                 }
             }
 
-            JSONObject obj = new JSONObject(text);
-            String intent = obj.optString("intent", "unknown");
+            return toParsedIntent(new JSONObject(text));
 
-            Map<String, String> entities = new HashMap<>();
-            for (String key : obj.keySet()) {
-                if (!key.equals("intent")) {
-                    entities.put(key, obj.optString(key, ""));
-                }
+        } catch (Exception e) {
+            System.err.println("⚠️ Parse fallback: " + e.getMessage());
+            Metrics.get().increment("parse_failure");
+            return new ParsedIntent("unknown", new HashMap<>());
+        }
+    }
+
+    /**
+     * Parses a JSON array reply to {@code expected} numbered inputs; elements that are not
+     * objects come back as null. Empty when the array does not have exactly one element per
+     * input, since then no element can be trusted to belong to its position.
+     */
+    private List<ParsedIntent> parseLLMBatchResponse(String rawText, int expected) {
+        String text = stripFences(rawText);
+        int start = text.indexOf("[");
+        int end = text.lastIndexOf("]");
+        if (start < 0 || end <= start) {
+            System.err.println("⚠️ Batch parse fallback: no JSON array in response");
+            Metrics.get().increment("parse_failure");
+            return List.of();
+        }
+
+        List<ParsedIntent> result = new ArrayList<>();
+        try {
+            JSONArray arr = new JSONArray(text.substring(start, end + 1));
+            for (int i = 0; i < arr.length(); i++) {
+                JSONObject obj = arr.optJSONObject(i);
+                result.add(obj == null ? null : toParsedIntent(obj));
             }
+        } catch (JSONException e) {
+            System.err.println("⚠️ Batch parse fallback: " + e.getMessage());
+            Metrics.get().increment("parse_failure");
+            return List.of();
+        }
+        if (result.size() != expected) {
+            System.err.println("⚠️ Batch parse fallback: " + result.size() + " jawaban untuk " + expected + " input");
+            Metrics.get().increment("parse_failure");
+            return List.of();
+        }
+        return result;
+    }
 
-            return new ParsedIntent(intent, entities);
+    // clean up formatting from LLM
+    private static String stripFences(String rawText) {
+        return rawText.replaceAll("(?s)```json", "")
+                      .replaceAll("(?s)```", "")
+                      .trim();
+    }
 
-        } catch (Exception e) {
-            System.out.println("⚠️ Parse fallback: " + e.getMessage());
-            return new ParsedIntent("unknown", new HashMap<>());
+    private static ParsedIntent toParsedIntent(JSONObject obj) {
+        JSONArray intents = obj.optJSONArray("intents");
+        if (intents != null && !intents.isEmpty()) {
+            List<ParsedIntent> parts = new ArrayList<>();
+            for (int i = 0; i < intents.length(); i++) {
+                JSONObject part = intents.optJSONObject(i);
+                if (part != null) parts.add(toParsedIntent(part));
+            }
+            if (!parts.isEmpty()) return ParsedIntent.of(parts);
+        }
+
+        String intent = obj.optString("intent", "unknown");
+
+        Map<String, String> entities = new HashMap<>();
+        for (String key : obj.keySet()) {
+            if (!key.equals("intent")) {
+                entities.put(key, obj.optString(key, ""));
+            }
         }
+
+        return new ParsedIntent(intent, entities);
     }
 }
\ No newline at end of file
@@ -0,0 +1,288 @@
+import java.util.*;
+
+/**
+ * Precomputed leave rollups for questions about a whole department, leave type or team
+ * ("total sisa cuti tahunan per departemen", "siapa di Teknologi yang cutinya habis").
+ *
+ * Balances are summed per (department, leave type) and, per leave type, as prefix sums in
+ * {@link OrgTree} tour order, so a manager's team (a contiguous tour range) costs one
+ * subtraction. Employees with no days left are listed per (department, leave type) in file
+ * order and per leave type in tour order, where a team is a binary-searched slice.
+ * Balances change only when leave_balances.csv is reloaded, which builds a new
+ * {@link EmployeeTable} and new rollups with it.
+ *
+ * Leave requests are counted per (department, leave type), pending and approved, and
+ * pending ones also per team. Appended rows and status changes go through
+ * {@link #withHistories}: the affected employees' old histories are subtracted and their
+ * new ones added, each up their chain of command, instead of recounting every request.
+ * Instances are immutable; an update copies the request counters and shares the rest.
+ */
+public final class LeaveAggregates {
+
+    private final EmployeeTable employees;
+    private final OrgTree orgTree;
+    private final int types;
+
+    // balances, indexed [department * types + type]
+    private final long[] balanceDays;
+    private final int[] holders;
+    private final int[][] exhausted;
+    // per type, indexed by tour position
+    private final long[][] daysByTour;
+    private final int[][] holdersByTour;
+    private final int[][] exhaustedTour;
+
+    // requests, indexed [department * (types + 1) + type]; the extra type is "not in leave_balances.csv"
+    private final int[] pending;
+    private final long[] pendingDays;
+    private final int[] approved;
+    private final long[] approvedDays;
+    // per employee, over their whole team
+    private final int[] teamPending;
+    private final long[] teamPendingDays;
+
+    private LeaveAggregates(EmployeeTable employees, OrgTree orgTree) {
+        this.employees = employees;
+        this.orgTree = orgTree;
+        int n = employees.size();
+        int departments = employees.departments.length;
+        types = employees.leaveTypes.length;
+
+        balanceDays = new long[departments * types];
+        holders = new int[departments * types];
+        daysByTour = new long[types][n + 1];
+        holdersByTour = new int[types][n + 1];
+        List<List<Integer>> exhaustedLists = new ArrayList<>();
+        for (int i = 0; i < departments * types; i++) exhaustedLists.add(new ArrayList<>());
+        boolean[][] empty = new boolean[types][n];
+
+        for (int e = 0; e < n; e++) {
+            int d = employees.department[e];
+            int at = orgTree.tin(e);
+            for (int r = employees.balanceStart(e); r < employees.balanceEnd(e); r++) {
+                int t = employees.leaveType(r);
+                int days = employees.days(r);
+                balanceDays[d * types + t] += days;
+                holders[d * types + t]++;
+                daysByTour[t][at + 1] = days;
+                holdersByTour[t][at + 1] = 1;
+                if (days <= 0) {
+                    exhaustedLists.get(d * types + t).add(e);
+                    empty[t][at] = true;
+                }
+            }
+        }
+
+        exhausted = new int[departments * types][];
+        for (int i = 0; i < exhausted.length; i++)
+            exhausted[i] = exhaustedLists.get(i).stream().mapToInt(Integer::intValue).toArray();
+        exhaustedTour = new int[types][];
+        for (int t = 0; t < types; t++) {
+            for (int k = 0; k < n; k++) {
+                daysByTour[t][k + 1] += daysByTour[t][k];
+                holdersByTour[t][k + 1] += holdersByTour[t][k];
+            }
+            int count = 0;
+            for (boolean b : empty[t]) if (b) count++;
+            exhaustedTour[t] = new int[count];
+            for (int k = 0, i = 0; k < n; k++) if (empty[t][k]) exhaustedTour[t][i++] = k;
+        }
+
+        pending = new int[departments * (types + 1)];
+        pendingDays = new long[pending.length];
+        approved = new int[pending.length];
+        approvedDays = new long[pending.length];
+        teamPending = new int[n];
+        teamPendingDays = new long[n];
+    }
+
+    /** Shares the balance rollups of {@code base} and copies its request counts for updating. */
+    private LeaveAggregates(LeaveAggregates base) {
+        employees = base.employees;
+        orgTree = base.orgTree;
+        types = base.types;
+        balanceDays = base.balanceDays;
+        holders = base.holders;
+        exhausted = base.exhausted;
+        daysByTour = base.daysByTour;
+        holdersByTour = base.holdersByTour;
+        exhaustedTour = base.exhaustedTour;
+        pending = base.pending.clone();
+        pendingDays = base.pendingDays.clone();
+        approved = base.approved.clone();
+        approvedDays = base.approvedDays.clone();
+        teamPending = base.teamPending.clone();
+        teamPendingDays = base.teamPendingDays.clone();
+    }
+
+    /** Rollups of the table's balances and of every request in {@code leaveHistory}. */
+    static LeaveAggregates build(EmployeeTable employees, OrgTree orgTree, Map<String, LeaveHistory> leaveHistory) {
+        LeaveAggregates a = new LeaveAggregates(employees, orgTree);
+        leaveHistory.forEach((empId, history) -> a.count(empId, history, 1));
+        return a;
+    }
+
+    /**
+     * Rollups after the histories of {@code changed} employees went from their entry in
+     * {@code before} to the one in {@code after}.
+     */
+    LeaveAggregates withHistories(Map<String, LeaveHistory> before, Map<String, LeaveHistory> after,
+                                  Collection<String> changed) {
+        if (changed.isEmpty()) return this;
+        LeaveAggregates a = new LeaveAggregates(this);
+        for (String empId : new HashSet<>(changed)) {
+            a.count(empId, before.getOrDefault(empId, LeaveHistory.EMPTY), -1);
+            a.count(empId, after.getOrDefault(empId, LeaveHistory.EMPTY), 1);
+        }
+        return a;
+    }
+
+    // === BALANCES ===
+    /** Number of leave types, the codes of {@link EmployeeTable#leaveTypeCode}. */
+    public int types() {
+        return types;
+    }
+
+    public int departments() {
+        return employees.departments.length;
+    }
+
+    public String departmentName(int d) {
+        return employees.departments[d];
+    }
+
+    /** Department code by name, ignoring case, else the only department starting with it; -1 when none. */
+    public int department(String name) {
+        String[] all = employees.departments;
+        for (int d = 0; d < all.length; d++) if (all[d].equalsIgnoreCase(name)) return d;
+        int found = -1;
+        for (int d = 0; d < all.length; d++) {
+            if (!all[d].toLowerCase(Locale.ROOT).startsWith(name.toLowerCase(Locale.ROOT))) continue;
+            if (found >= 0) return -1;
+            found = d;
+        }
+        return found;
+    }
+
+    /** Days left of the type, summed over the department. */
+    public long days(int department, int type) {
+        return balanceDays[department * types + type];
+    }
+
+    /** Employees in the department with a balance row for the type. */
+    public int holders(int department, int type) {
+        return holders[department * types + type];
+    }
+
+    /** Ordinals of employees in the department with no days of the type left, in file order. */
+    public int[] exhausted(int department, int type) {
+        return exhausted[department * types + type];
+    }
+
+    /** Days left of the type over the manager's team, the manager included. */
+    public long teamDays(int manager, int type) {
+        return daysByTour[type][orgTree.tout(manager) + 1] - daysByTour[type][orgTree.tin(manager)];
+    }
+
+    public int teamHolders(int manager, int type) {
+        return holdersByTour[type][orgTree.tout(manager) + 1] - holdersByTour[type][orgTree.tin(manager)];
+    }
+
+    /** Ordinals of the manager's team with no days of the type left, in tour order. */
+    public int[] teamExhausted(int manager, int type) {
+        int[] positions = exhaustedTour[type];
+        int from = lowerBound(positions, orgTree.tin(manager));
+        int to = lowerBound(positions, orgTree.tout(manager) + 1);
+        int[] out = new int[to - from];
+        for (int i = from; i < to; i++) out[i - from] = orgTree.atTour(positions[i]);
+        return out;
+    }
+
+    /** Size of the manager's team, the manager included. */
+    public int teamSize(int manager) {
+        return orgTree.tout(manager) - orgTree.tin(manager) + 1;
+    }
+
+    // === REQUESTS ===
+    /** Requests waiting for approval; {@code type} -1 sums every type. */
+    public int pending(int department, int type) {
+        return sum(pending, department, type);
+    }
+
+    public long pendingDays(int department, int type) {
+        return sum(pendingDays, department, type);
+    }
+
+    public int approved(int department, int type) {
+        return sum(approved, department, type);
+    }
+
+    public long approvedDays(int department, int type) {
+        return sum(approvedDays, department, type);
+    }
+
+    /** Requests waiting for approval across the manager's team, the manager included. */
+    public int teamPending(int manager) {
+        return teamPending[manager];
+    }
+
+    public long teamPendingDays(int manager) {
+        return teamPendingDays[manager];
+    }
+
+    // === HELPERS ===
+    /** Adds ({@code sign} 1) or removes (-1) every request of one employee's history. */
+    private void count(String employeeId, LeaveHistory history, int sign) {
+        int e = employees.ordinal(employeeId);
+        if (e < 0) return;
+        int base = employees.department[e] * (types + 1);
+        int pendingCount = 0;
+        long pendingTotal = 0;
+        for (int i = 0; i < history.size(); i++) {
+            LeaveHistory.Request r = history.get(i);
+            int t = employees.leaveTypeCode(r.type.toLowerCase(Locale.ROOT));
+            int cell = base + (t < 0 ? types : t);
+            if (r.isPending()) {
+                pending[cell] += sign;
+                pendingDays[cell] += sign * r.days();
+                pendingCount += sign;
+                pendingTotal += sign * r.days();
+            } else if (r.isApproved()) {
+                approved[cell] += sign;
+                approvedDays[cell] += sign * r.days();
+            }
+        }
+        if (pendingCount == 0 && pendingTotal == 0) return;
+        for (int v = e; v >= 0; v = orgTree.parent(v)) {
+            teamPending[v] += pendingCount;
+            teamPendingDays[v] += pendingTotal;
+        }
+    }
+
+    private int sum(int[] cells, int department, int type) {
+        int base = department * (types + 1);
+        if (type >= 0) return cells[base + type];
+        int total = 0;
+        for (int t = 0; t <= types; t++) total += cells[base + t];
+        return total;
+    }
+
+    private long sum(long[] cells, int department, int type) {
+        int base = department * (types + 1);
+        if (type >= 0) return cells[base + type];
+        long total = 0;
+        for (int t = 0; t <= types; t++) total += cells[base + t];
+        return total;
+    }
+
+    /** First index whose value is at least {@code key}. */
+    private static int lowerBound(int[] sorted, int key) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
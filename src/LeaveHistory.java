@@ -0,0 +1,206 @@
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Immutable leave-request history of one employee.
+ *
+ * Status changes are appended to the log as the request's row again with the new status,
+ * so a row with the ID and dates of an existing request replaces it in place rather than
+ * adding a second one.
+ *
+ * Requests are kept in file order (the last one is the latest submission) and, for date
+ * queries, sorted by start date with a running maximum of end dates. A query for
+ * [start, end] binary-searches the last request starting on or before {@code end} and the
+ * first position whose running maximum reaches {@code start}; only the requests in between
+ * can overlap, and they are checked one by one. That skips the requests that ended before
+ * {@code start}, but one long request early on keeps everything after it in range, so a
+ * lookup is O(log n) plus the scanned window, which is O(n) at worst. An employee's history
+ * is small enough that this beats keeping an interval tree per employee.
+ */
+public final class LeaveHistory {
+
+    static final LeaveHistory EMPTY = new LeaveHistory(new Request[0]);
+
+    private static final DateTimeFormatter CSV_DATE = DateTimeFormatter.ofPattern("M/d/yyyy");
+
+    private final Request[] requests;
+    private final Request[] byStart;
+    private final long[] maxEnd;
+
+    private LeaveHistory(Request[] requests) {
+        this.requests = requests;
+        this.byStart = requests.clone();
+        Arrays.sort(byStart, Comparator.comparingLong((Request r) -> r.startDay));   // stable: ties keep file order
+        this.maxEnd = new long[byStart.length];
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < byStart.length; i++)
+            maxEnd[i] = max = Math.max(max, byStart[i].endDay);
+    }
+
+    /**
+     * History with {@code added} applied in the given order: status updates of known
+     * requests replace them, anything else is appended after the existing requests.
+     */
+    LeaveHistory with(List<Request> added) {
+        if (added.isEmpty()) return this;
+        List<Request> merged = new ArrayList<>(requests.length + added.size());
+        Map<String, Integer> lastById = new HashMap<>((requests.length + added.size()) * 2);
+        for (Request r : requests) {
+            lastById.put(r.id, merged.size());
+            merged.add(r);
+        }
+        for (Request r : added) {
+            Integer at = lastById.get(r.id);
+            if (at != null && merged.get(at).sameRequest(r)) {
+                merged.set(at, r);
+            } else {
+                lastById.put(r.id, merged.size());
+                merged.add(r);
+            }
+        }
+        return new LeaveHistory(merged.toArray(new Request[0]));
+    }
+
+    // === QUERIES ===
+    /** Most recently submitted request, or null when there is none. */
+    public Request latest() {
+        return requests.length == 0 ? null : requests[requests.length - 1];
+    }
+
+    public int size() {
+        return requests.length;
+    }
+
+    /** The {@code i}-th request in submission order. */
+    Request get(int i) {
+        return requests[i];
+    }
+
+    /** Requests sharing at least one day with [start, end], by start date. */
+    public List<Request> overlapping(LocalDate start, LocalDate end) {
+        List<Request> out = new ArrayList<>();
+        long s = start.toEpochDay();
+        for (int i = firstReaching(s), hi = firstStartAfter(end.toEpochDay()); i < hi; i++)
+            if (byStart[i].endDay >= s) out.add(byStart[i]);
+        return out;
+    }
+
+    /** First request (by start date) overlapping [start, end] that satisfies {@code filter}, or null. */
+    public Request firstOverlap(LocalDate start, LocalDate end, Predicate<Request> filter) {
+        long s = start.toEpochDay();
+        for (int i = firstReaching(s), hi = firstStartAfter(end.toEpochDay()); i < hi; i++)
+            if (byStart[i].endDay >= s && filter.test(byStart[i])) return byStart[i];
+        return null;
+    }
+
+    // === HELPERS ===
+    /** Index of the first request starting after {@code day}. */
+    private int firstStartAfter(long day) {
+        int lo = 0, hi = byStart.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (byStart[mid].startDay <= day) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Index of the first request at or before which some request ends on or after {@code day}. */
+    private int firstReaching(long day) {
+        int lo = 0, hi = maxEnd.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (maxEnd[mid] < day) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Accepts both the M/d/yyyy dates this app writes and ISO yyyy-MM-dd. */
+    static LocalDate parseDate(String s) {
+        try {
+            return s.indexOf('-') > 0 ? LocalDate.parse(s) : LocalDate.parse(s, CSV_DATE);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /** One row of leave_requests.csv. */
+    public static final class Request {
+        public static final String PENDING = "Menunggu Persetujuan";
+        public static final String APPROVED = "Disetujui";
+        public static final String REJECTED = "Ditolak";
+        public static final String CANCELLED = "Dibatalkan";
+
+        public final String id;
+        public final String employeeId;
+        public final String type;
+        public final LocalDate start;
+        public final LocalDate end;
+        public final String status;
+        final long startDay;
+        final long endDay;
+
+        Request(String id, String employeeId, String type, LocalDate start, LocalDate end, String status) {
+            this.id = id;
+            this.employeeId = employeeId;
+            this.type = type;
+            this.start = start;
+            this.end = end;
+            this.status = status;
+            this.startDay = start.toEpochDay();
+            this.endDay = end.toEpochDay();
+        }
+
+        /** @return the request, or null when the row is too short or its dates do not parse */
+        static Request parse(CsvReader.Row row) {
+            if (row.size() < 6) return null;
+            LocalDate start = parseDate(row.get(3));
+            LocalDate end = parseDate(row.get(4));
+            if (start == null || end == null) return null;
+            return new Request(row.get(0), row.get(1), row.get(2), start, end.isBefore(start) ? start : end, row.get(5));
+        }
+
+        public boolean isPending() {
+            return PENDING.equalsIgnoreCase(status);
+        }
+
+        public boolean isApproved() {
+            return APPROVED.equalsIgnoreCase(status);
+        }
+
+        /** Calendar days from start to end, both included. */
+        public int days() {
+            return (int) (endDay - startDay + 1);
+        }
+
+        /** Rejected and cancelled requests no longer claim their days. */
+        public boolean isActive() {
+            return !REJECTED.equalsIgnoreCase(status) && !CANCELLED.equalsIgnoreCase(status);
+        }
+
+        /** Same request (ID, employee and dates), possibly with another status. */
+        boolean sameRequest(Request other) {
+            return id.equals(other.id) && employeeId.equals(other.employeeId)
+                    && startDay == other.startDay && endDay == other.endDay;
+        }
+
+        /** The request's row as this app writes it, carrying {@code newStatus}. */
+        public String toCsvLine(String newStatus) {
+            return csvLine(id, employeeId, type, start, end, newStatus);
+        }
+
+        /** A leave_requests.csv row; values are quoted as {@link CsvReader#format} needs. */
+        static String csvLine(String id, String employeeId, String type, LocalDate start, LocalDate end, String status) {
+            return CsvReader.format(id, employeeId, type, start.format(CSV_DATE), end.format(CSV_DATE), status);
+        }
+
+        @Override
+        public String toString() {
+            return id + " " + type + " " + start + ".." + end + " (" + status + ")";
+        }
+    }
+}
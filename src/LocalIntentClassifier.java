@@ -0,0 +1,296 @@
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Pattern-based classifier for the command shapes listed in the Gemini prompt.
+ * Only answers when the whole input matches a known template; anything else
+ * returns null so the caller can fall through to the LLM.
+ *
+ * Compound input is split into clauses on ",", ";", "dan", "lalu" and the like, and
+ * every clause must match on its own. A clause that is just a name repeats the previous
+ * request for that name ("sisa cuti budi, rina dan eko"), and one without a name picks up
+ * the previous name through "-nya" ("info budi lalu siapa manajernya").
+ *
+ * A template only proves the input has the right shape: "info teknologi" fits the employee
+ * info template as well as "info budi" does. Full confidence therefore also needs every
+ * name to be known to the name check the classifier was built with; other matches are
+ * left to the LLM and only taken when it is unavailable.
+ */
+public class LocalIntentClassifier {
+
+    public static final double CONFIDENCE_THRESHOLD = 0.9;
+    /** Accepted when the LLM is unavailable: a partial guess beats a flat "unknown". */
+    public static final double DEGRADED_THRESHOLD = 0.5;
+    /** A clean name nobody in the directory has: below {@link #CONFIDENCE_THRESHOLD}, above degraded. */
+    static final double UNKNOWN_NAME_CONFIDENCE = 0.7;
+
+    // === GRAMMAR FRAGMENTS ===
+    private static final String KEYWORD =
+        "(?:dari|untuk|buat|dengan|pada|tanggal|tgl|sampai|hingga|kategori|sebesar|senilai|rp)\\b";
+    private static final String WORD = "(?!" + KEYWORD + ")[a-z][a-z'.]*";
+    private static final String NAME = WORD + "(?: " + WORD + "){0,2}";
+    private static final String MONTH =
+        "jan(?:uari)?|feb(?:ruari)?|mar(?:et)?|apr(?:il)?|mei|jun(?:i)?|jul(?:i)?"
+        + "|agu(?:stus)?|agt|ags|sep(?:t|tember)?|okt(?:ober)?|nov(?:ember)?|des(?:ember)?";
+    private static final String DATE =
+        "\\d{4}-\\d{2}-\\d{2}|\\d{1,2} (?:" + MONTH + ")(?: \\d{4})?";
+    private static final String LEAVE_TYPE = "tahunan|sakit|melahirkan|cuti melahirkan|menikah|besar|khusus";
+    private static final String REQUEST = "(?:(?:pengajuan|request|permintaan) )?(?:cuti )?(?:id )?(?<request>lr\\d+)";
+    /** A name taking as few words as leave the rest of the rule matching ("tim santi besok"). */
+    private static final String SHORT_NAME = WORD + "(?: " + WORD + "){0,2}?";
+    private static final String DEPARTMENT = "(?:departemen |divisi |bagian )?(?<department>" + SHORT_NAME + ")";
+    private static final String WHEN =
+        "(?:(?<period>hari ini|sekarang|besok|lusa|(?:minggu|pekan|bulan) (?:ini|depan))"
+        + "|(?:pada |tanggal |tgl |pada tanggal )?(?<date>" + DATE + ")"
+        + "|(?:dari )?(?:tanggal |tgl )?(?<start>" + DATE + ") (?:sampai|hingga|s/d|-) (?:tanggal |tgl )?(?<end>" + DATE + "))";
+    private static final String PREP = "(?:(?:dari|untuk|buat|milik|punya|si) )?";
+
+    private static final Pattern LEADING_FILLER =
+        Pattern.compile("^(?:(?:tolong|mohon|coba|bisa|bisakah|minta|please|halo|hai|aku mau|saya mau|saya ingin)\\s+)+");
+    private static final Pattern TRAILING_FILLER =
+        Pattern.compile("(?:\\s+(?:dong|ya|yah|deh|sih|nih|please|pls|kak|min))+$");
+
+    static final Set<String> STOPWORDS = Set.of(
+        "cuti", "sisa", "saldo", "manajer", "manager", "atasan", "status", "info", "informasi",
+        "rekan", "kerja", "review", "performa", "expense", "dari", "untuk", "buat", "dengan",
+        "siapa", "yang", "dan", "atau", "saya", "aku", "nya", "bawahan", "apakah", "berapa", "di"
+    );
+
+    private static final Map<String, Integer> MONTHS = new HashMap<>();
+    static {
+        String[][] months = {
+            {"jan", "januari"}, {"feb", "februari"}, {"mar", "maret"}, {"apr", "april"},
+            {"mei"}, {"jun", "juni"}, {"jul", "juli"}, {"agu", "agustus", "agt", "ags"},
+            {"sep", "sept", "september"}, {"okt", "oktober"}, {"nov", "november"}, {"des", "desember"}
+        };
+        for (int i = 0; i < months.length; i++)
+            for (String m : months[i]) MONTHS.put(m, i + 1);
+    }
+
+    private static final Pattern CLAUSE_SEPARATOR = Pattern.compile(
+        "\\s*(?:[,;]\\s*)?(?:\\b(?:dan|lalu|kemudian|terus|serta|setelah itu|habis itu)\\b|[,;])\\s*");
+    private static final Pattern BARE_NAME = Pattern.compile("^" + NAME + "$");
+    private static final Pattern POSSESSIVE = Pattern.compile("\\b([a-z]+)nya\\b");
+    private static final Pattern PUNCTUATION = Pattern.compile("[?!]+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern TRAILING_DOTS = Pattern.compile("[.,]+$");
+    private static final Pattern AMOUNT_SEPARATORS = Pattern.compile("[.,]");
+    private static final Pattern YEAR = Pattern.compile("\\d{4}");
+    private static final Pattern ISO_DATE = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+    private static final int MAX_PARTS = 20;
+
+    private final List<Rule> rules = new ArrayList<>();
+    private final Predicate<String> knownName;
+
+    /** Classifier that takes every well-formed name at face value, e.g. for a stub server. */
+    public LocalIntentClassifier() {
+        this(name -> true);
+    }
+
+    /** @param knownName whether a candidate name matches someone in the employee directory */
+    public LocalIntentClassifier(Predicate<String> knownName) {
+        this.knownName = knownName;
+        rule("help", "(?:help|bantuan|panduan|menu)");
+        rule("get_leave_request", "(?:(?:cek|lihat|detail|info) )?" + REQUEST);
+        rule("approve_leave", "(?:setujui|approve|acc|terima) " + REQUEST);
+        rule("cancel_leave", "(?:batalkan|batal|cancel) " + REQUEST);
+        rule("leave_summary",
+            "(?:total|rekap|ringkasan|jumlah) (?:sisa |saldo )?cuti(?: (?<type>" + LEAVE_TYPE + "))?"
+            + "(?: per (?:departemen|divisi|jenis(?: cuti)?)| (?:tim|di bawah) (?<manager>" + NAME + ")| (?:di |untuk )?" + DEPARTMENT + ")?");
+        rule("leave_summary",
+            "(?:sisa|saldo) cuti(?: (?<type>" + LEAVE_TYPE + "))? per (?:departemen|divisi|jenis(?: cuti)?)");
+        rule("leave_exhausted",
+            "siapa(?: saja)?(?: (?:di |dari )?tim (?<manager>" + NAME + ")| (?:di|dari) " + DEPARTMENT + ")?"
+            + " yang (?:sisa )?cuti(?:nya)?(?: (?<type>" + LEAVE_TYPE + ")(?:nya)?)? (?:sudah )?habis");
+        rule("who_is_out",
+            "siapa(?: saja)?(?: (?:di |dari )?tim (?<manager>" + NAME + ")| (?:di|dari) " + DEPARTMENT + ")?"
+            + " yang (?:sedang )?(?:cuti|libur|tidak masuk|izin)(?: " + WHEN + ")?");
+        rule("team_coverage",
+            "(?:cek |lihat )?(?:coverage|cakupan|kehadiran|ketersediaan) (?:tim (?<manager>" + SHORT_NAME + ")|" + DEPARTMENT + ")"
+            + "(?: " + WHEN + ")?");
+        rule("get_chain_of_command",
+            "(?:lihat |cek )?(?:rantai|jalur|hierarki) (?:komando|atasan|pelaporan|manajer) " + PREP + "(?<name>" + NAME + ")");
+        rule("check_reporting_line",
+            "apakah (?<name>" + NAME + ") (?:(?:berada|ada|termasuk) )?(?:di bawah|bawahan|anak buah|tim)"
+            + " (?:garis pelaporan )?(?<manager>" + NAME + ")");
+        rule("count_reports",
+            "(?:berapa|jumlah) (?:jumlah )?(?:bawahan|anak buah)(?: langsung)? " + PREP + "(?<name>" + NAME + ")");
+        rule("count_reports",
+            "(?<name>" + NAME + ") punya berapa (?:bawahan|anak buah)");
+        rule("list_subordinates",
+            "(?:siapa saja |daftar |lihat )?(?:bawahan|anak buah|tim|org) " + PREP + "(?<name>" + NAME + ")");
+        rule("list_subordinates",
+            "siapa saja (?:yang )?(?:ada )?di (?:bawah|tim|org) (?<name>" + NAME + ")");
+        rule("get_manager",
+            "(?:siapa )?(?:manajer|manager|atasan)(?:nya)? " + PREP + "(?<name>" + NAME + ")");
+        rule("get_manager",
+            "(?<name>" + NAME + ") (?:manajernya|managernya|atasannya) siapa");
+        rule("check_leave_status",
+            "(?:cek |lihat )?status (?:pengajuan )?cuti(?: terakhir)? " + PREP + "(?<name>" + NAME + ")");
+        rule("get_leave_balance",
+            "(?:cek |lihat )?(?:sisa|saldo|jatah) cuti(?: (?<type>" + LEAVE_TYPE + "))? " + PREP + "(?<name>" + NAME + ")");
+        rule("lookup_colleague",
+            "(?:cari |lihat )?info(?:rmasi)? (?:rekan|kolega)(?: kerja)? " + PREP + "(?<name>" + NAME + ")");
+        rule("get_employee_info",
+            "(?:cari |lihat )?info(?:rmasi)?(?: karyawan)? " + PREP + "(?<name>" + NAME + ")");
+        rule("apply_leave",
+            "ajukan cuti(?: (?<type>" + LEAVE_TYPE + "))? (?:untuk |buat )?(?<name>" + NAME + ")"
+            + " (?:dari )?(?:tanggal |tgl )?(?<start>" + DATE + ") (?:sampai|hingga|s/d|-) (?:tanggal |tgl )?(?<end>" + DATE + ")");
+        rule("schedule_review",
+            "jadwalkan review(?: performa)? (?:untuk )?(?<name>" + NAME + ") dengan (?:bu |pak |mas |mbak )?(?<reviewer>" + NAME + ")"
+            + " (?:pada |tanggal |tgl |pada tanggal )?(?<date>" + DATE + ")");
+        rule("submit_expense",
+            "ajukan expense (?:untuk )?(?<name>" + NAME + ") (?:kategori )?(?<category>" + WORD + ")"
+            + " (?:sebesar |senilai )?(?:rp\\.? ?)?(?<amount>\\d[\\d.,]*)");
+    }
+
+    private void rule(String intent, String regex) {
+        rules.add(new Rule(intent, Pattern.compile("^" + regex + "$")));
+    }
+
+    // === MAIN LOGIC ===
+    /**
+     * Classifies the input locally.
+     * @return the parsed intent, or null when no template matches with enough confidence.
+     */
+    public IntentClassifierGemini.ParsedIntent classify(String input) {
+        return classify(input, CONFIDENCE_THRESHOLD);
+    }
+
+    public IntentClassifierGemini.ParsedIntent classify(String input, double minConfidence) {
+        if (input == null) return null;
+        String text = clean(input);
+        if (text.isEmpty()) return null;
+
+        IntentClassifierGemini.ParsedIntent whole = match(text, minConfidence);
+        return whole != null ? whole : classifyCompound(text, minConfidence);
+    }
+
+    /** Splits {@code text} into clauses; null unless every one of them can be classified. */
+    private IntentClassifierGemini.ParsedIntent classifyCompound(String text, double minConfidence) {
+        String[] clauses = CLAUSE_SEPARATOR.split(text);
+        if (clauses.length < 2 || clauses.length > MAX_PARTS) return null;
+
+        List<IntentClassifierGemini.ParsedIntent> parts = new ArrayList<>(clauses.length);
+        String lastClause = null, lastName = null;
+        for (String clause : clauses) {
+            if (clause.isEmpty()) continue;
+            IntentClassifierGemini.ParsedIntent p = match(clause, minConfidence);
+            if (p == null && lastName != null && POSSESSIVE.matcher(clause).find()) {
+                // "siapa manajernya": the previous name
+                String resolved = POSSESSIVE.matcher(clause).replaceAll("$1") + " " + lastName;
+                p = match(resolved, minConfidence);
+                if (p != null) clause = resolved;
+            }
+            if (p == null && lastName != null && BARE_NAME.matcher(clause).matches()
+                    && nameConfidence(clause) == 1.0 && lastClause.endsWith(lastName)) {
+                // "..., rina": the previous request again, for another name
+                clause = lastClause.substring(0, lastClause.length() - lastName.length()) + clause;
+                p = match(clause, minConfidence);
+            }
+            if (p == null) return null;
+
+            parts.add(p);
+            lastClause = clause;
+            String name = p.entities.get("name");
+            if (name != null) lastName = name;
+        }
+        return parts.size() < 2 ? null : IntentClassifierGemini.ParsedIntent.of(parts);
+    }
+
+    /** The first rule matching all of {@code text}, or null. */
+    private IntentClassifierGemini.ParsedIntent match(String text, double minConfidence) {
+        for (Rule rule : rules) {
+            Matcher m = rule.pattern.matcher(text);
+            if (!m.matches()) continue;
+
+            Map<String, String> entities = new HashMap<>();
+            double confidence = 1.0;
+            for (String group : rule.groups) {
+                String value = m.group(group);
+                if (value == null) continue;
+                switch (group) {
+                    case "name", "reviewer", "manager" -> confidence = Math.min(confidence, nameConfidence(value));
+                    case "start", "end", "date" -> {
+                        LocalDate date = parseDate(value);
+                        if (date == null) return null;
+                        value = date.toString();
+                    }
+                    case "amount" -> value = AMOUNT_SEPARATORS.matcher(value).replaceAll("");
+                    case "type" -> value = value.startsWith("cuti ") ? value.substring(5) : value;
+                    case "request" -> value = value.toUpperCase(Locale.ROOT);
+                    default -> { }
+                }
+                entities.put(KEYS.getOrDefault(group, group), value);
+            }
+
+            // "3 okt sampai 5 jan" spans a year boundary when no year is given
+            if (entities.containsKey("start_date") && entities.containsKey("end_date")) {
+                LocalDate start = LocalDate.parse(entities.get("start_date"));
+                LocalDate end = LocalDate.parse(entities.get("end_date"));
+                if (end.isBefore(start)) {
+                    if (!hasYear(m.group("end"))) entities.put("end_date", end.plusYears(1).toString());
+                    else confidence = 0;
+                }
+            }
+
+            if (confidence < minConfidence) return null;
+            return new IntentClassifierGemini.ParsedIntent(rule.intent, entities);
+        }
+        return null;
+    }
+
+    // === HELPERS ===
+    private static final Map<String, String> KEYS =
+        Map.of("start", "start_date", "end", "end_date", "request", "request_id");
+
+    private String clean(String input) {
+        String text = input.toLowerCase(Locale.ROOT);
+        text = PUNCTUATION.matcher(text).replaceAll(" ");
+        text = WHITESPACE.matcher(text).replaceAll(" ").trim();
+        text = TRAILING_DOTS.matcher(text).replaceFirst("");
+        text = LEADING_FILLER.matcher(text).replaceFirst("");
+        text = TRAILING_FILLER.matcher(text).replaceFirst("");
+        return text.trim();
+    }
+
+    private double nameConfidence(String name) {
+        for (String w : name.split(" "))
+            if (STOPWORDS.contains(w)) return 0.5;
+        return knownName.test(name) ? 1.0 : UNKNOWN_NAME_CONFIDENCE;
+    }
+
+    private boolean hasYear(String date) {
+        return YEAR.matcher(date).find();
+    }
+
+    static LocalDate parseDate(String text) {
+        try {
+            if (ISO_DATE.matcher(text).matches()) return LocalDate.parse(text);
+            String[] p = text.split(" ");
+            Integer month = MONTHS.get(p[1]);
+            if (month == null) return null;
+            int year = p.length > 2 ? Integer.parseInt(p[2]) : LocalDate.now().getYear();
+            return LocalDate.of(year, month, Integer.parseInt(p[0]));
+        } catch (DateTimeException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static class Rule {
+        final String intent;
+        final Pattern pattern;
+        final List<String> groups = new ArrayList<>();
+
+        Rule(String intent, Pattern pattern) {
+            this.intent = intent;
+            this.pattern = pattern;
+            Matcher g = Pattern.compile("\\(\\?<([a-zA-Z]+)>").matcher(pattern.pattern());
+            while (g.find()) groups.add(g.group(1));
+        }
+    }
+}
@@ -0,0 +1,182 @@
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide latency histograms and counters for the request pipeline.
+ *
+ * Stage timings are recorded per intent (and rolled up under "*"), e.g.
+ * {@code prompt_build}, {@code gemini_http}, {@code response_parse}, {@code execute}
+ * and {@code csv_io}. Everything is visible through {@link #dump()}, the "metrics"
+ * CLI command, GET /metrics in server mode, and JMX as {@code com.lawencon.hr:type=Metrics}.
+ */
+public final class Metrics implements MetricsMXBean {
+
+    private static final Metrics INSTANCE = new Metrics();
+
+    private final Map<String, Histogram> timings = new ConcurrentSkipListMap<>();
+    private final Map<String, Histogram> sizes = new ConcurrentSkipListMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+
+    private Metrics() {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(this, new ObjectName("com.lawencon.hr:type=Metrics"));
+        } catch (Exception e) {
+            System.out.println("⚠️ Metrics tidak terdaftar di JMX: " + e.getMessage());
+        }
+    }
+
+    public static Metrics get() {
+        return INSTANCE;
+    }
+
+    // === RECORDING ===
+    /** @param intent the intent the timing belongs to, or null when only the roll-up applies */
+    public void recordNanos(String stage, String intent, long nanos) {
+        if (intent != null)
+            timings.computeIfAbsent(stage + " [" + intent + "]", k -> new Histogram()).record(nanos);
+        timings.computeIfAbsent(stage + " [*]", k -> new Histogram()).record(nanos);
+    }
+
+    public void recordSince(String stage, String intent, long startNanos) {
+        recordNanos(stage, intent, System.nanoTime() - startNanos);
+    }
+
+    /** Distribution of a non-time quantity, e.g. request or response bytes. */
+    public void recordSize(String name, long value) {
+        sizes.computeIfAbsent(name, k -> new Histogram()).record(value);
+    }
+
+    public void increment(String counter) {
+        counters.computeIfAbsent(counter, k -> new LongAdder()).increment();
+    }
+
+    /** A value read when metrics are reported, e.g. a queue depth; registering a name again replaces it. */
+    public void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    public long count(String counter) {
+        LongAdder a = counters.get(counter);
+        return a == null ? 0 : a.sum();
+    }
+
+    public void reset() {
+        timings.clear();
+        sizes.clear();
+        counters.clear();
+    }
+
+    // === JMX / DUMP ===
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> m = new TreeMap<>();
+        counters.forEach((k, v) -> m.put(k, v.sum()));
+        return m;
+    }
+
+    @Override
+    public Map<String, Long> getGauges() {
+        Map<String, Long> m = new LinkedHashMap<>();
+        gauges.forEach((k, v) -> m.put(k, v.getAsLong()));
+        return m;
+    }
+
+    @Override
+    public Map<String, String> getStageLatencies() {
+        Map<String, String> m = new LinkedHashMap<>();
+        timings.forEach((k, h) -> m.put(k, h.summary(1_000_000.0, "ms")));
+        return m;
+    }
+
+    @Override
+    public Map<String, String> getSizes() {
+        Map<String, String> m = new LinkedHashMap<>();
+        sizes.forEach((k, h) -> m.put(k, h.summary(1.0, "B")));
+        return m;
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder sb = new StringBuilder("=== Latensi per tahap ===\n");
+        getStageLatencies().forEach((k, v) -> sb.append(String.format("%-40s %s%n", k, v)));
+        sb.append("=== Ukuran payload ===\n");
+        getSizes().forEach((k, v) -> sb.append(String.format("%-40s %s%n", k, v)));
+        sb.append("=== Counter ===\n");
+        getCounters().forEach((k, v) -> sb.append(String.format("%-40s %d%n", k, v)));
+        sb.append("=== Gauge ===\n");
+        getGauges().forEach((k, v) -> sb.append(String.format("%-40s %d%n", k, v)));
+        return sb.toString();
+    }
+
+    /**
+     * Lock-free log-linear histogram: 8 sub-buckets per power of two, so any
+     * reported percentile is within 12.5% of the true value.
+     */
+    static final class Histogram {
+        private static final int SUB_BITS = 3;
+        private static final int SUB = 1 << SUB_BITS;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(64 << SUB_BITS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long value) {
+            if (value < 0) value = 0;
+            buckets.incrementAndGet(index(value));
+            count.increment();
+            sum.add(value);
+            max.accumulateAndGet(value, Math::max);
+        }
+
+        long count() {
+            return count.sum();
+        }
+
+        /** Upper bound of the bucket holding the given percentile (0-100). */
+        long percentile(double p) {
+            long total = count.sum();
+            if (total == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(total * p / 100.0));
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) return Math.min(upperBound(i), max.get());
+            }
+            return max.get();
+        }
+
+        String summary(double divisor, String unit) {
+            long n = count.sum();
+            double mean = n == 0 ? 0 : sum.sum() / (double) n / divisor;
+            return String.format("n=%d mean=%.3f%s p50=%.3f%s p99=%.3f%s max=%.3f%s",
+                    n, mean, unit,
+                    percentile(50) / divisor, unit,
+                    percentile(99) / divisor, unit,
+                    max.get() / divisor, unit);
+        }
+
+        static int index(long v) {
+            if (v < SUB) return (int) v;
+            int exp = 63 - Long.numberOfLeadingZeros(v);
+            int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB - 1);
+            return ((exp - SUB_BITS + 1) << SUB_BITS) + sub;
+        }
+
+        static long upperBound(int index) {
+            if (index < SUB) return index;
+            int exp = (index >> SUB_BITS) + SUB_BITS - 1;
+            long sub = index & (SUB - 1);
+            return ((SUB + sub + 1) << (exp - SUB_BITS)) - 1;
+        }
+    }
+}
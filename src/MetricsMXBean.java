@@ -0,0 +1,20 @@
+import java.util.Map;
+
+/** JMX view of {@link Metrics}. */
+public interface MetricsMXBean {
+
+    /** Fallbacks, parse failures, HTTP status codes and other event counts. */
+    Map<String, Long> getCounters();
+
+    /** Current values such as the Gemini rate-limiter queue depth. */
+    Map<String, Long> getGauges();
+
+    /** "stage [intent]" → count, mean, p50, p99 and max latency. */
+    Map<String, String> getStageLatencies();
+
+    /** Prompt and response byte-size distributions. */
+    Map<String, String> getSizes();
+
+    /** Human-readable dump of everything above. */
+    String dump();
+}
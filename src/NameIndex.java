@@ -0,0 +1,162 @@
+import java.util.*;
+
+/**
+ * Immutable n-gram inverted index over lowercase employee names.
+ * Partial-name queries intersect the posting lists of the query's grams
+ * instead of scanning every name, and results come back in a stable ranking.
+ */
+public class NameIndex {
+
+    private static final int GRAM = 3;
+    private static final int[] EMPTY = new int[0];
+
+    private final String[] names;
+    private final Map<String, int[]> postings;
+
+    public NameIndex(Collection<String> names) {
+        TreeSet<String> sorted = new TreeSet<>();
+        for (String n : names)
+            if (n != null && !n.isBlank()) sorted.add(n.toLowerCase(Locale.ROOT).trim());
+        this.names = sorted.toArray(new String[0]);
+
+        // 1- and 2-grams are indexed too so short queries stay sub-linear
+        Map<String, List<Integer>> building = new HashMap<>();
+        for (int ord = 0; ord < this.names.length; ord++) {
+            String name = this.names[ord];
+            Set<String> seen = new HashSet<>();
+            for (int len = 1; len <= GRAM; len++)
+                for (int i = 0; i + len <= name.length(); i++) {
+                    String gram = name.substring(i, i + len);
+                    if (seen.add(gram))
+                        building.computeIfAbsent(gram, k -> new ArrayList<>()).add(ord);
+                }
+        }
+
+        Map<String, int[]> postings = new HashMap<>(building.size() * 2);
+        for (Map.Entry<String, List<Integer>> e : building.entrySet())
+            postings.put(e.getKey(), e.getValue().stream().mapToInt(Integer::intValue).toArray());
+        this.postings = postings;
+    }
+
+    /** Restores an index from {@link #names()} and {@link #postings()}, e.g. out of a {@link BinarySnapshot}. */
+    NameIndex(String[] sortedNames, Map<String, int[]> postings) {
+        this.names = sortedNames;
+        this.postings = postings;
+    }
+
+    // === QUERIES ===
+    /**
+     * Returns every indexed name containing the query, best match first:
+     * exact name, whole word, name prefix, word prefix, then any substring.
+     * Ties are broken by match position and then alphabetically.
+     */
+    public List<String> find(String query) {
+        if (query == null) return List.of();
+        String q = query.toLowerCase(Locale.ROOT).trim();
+        if (q.isEmpty()) return List.of();
+
+        int[] candidates = candidates(q);
+        List<Match> matches = new ArrayList<>();
+        for (int ord : candidates) {
+            String name = names[ord];
+            int pos = name.indexOf(q);
+            if (pos >= 0) matches.add(new Match(ord, rank(name, q, pos), pos));
+        }
+        matches.sort(Comparator.comparingInt((Match m) -> m.rank)
+                               .thenComparingInt(m -> m.pos)
+                               .thenComparingInt(m -> m.ord));
+
+        List<String> result = new ArrayList<>(matches.size());
+        for (Match m : matches) result.add(names[m.ord]);
+        return result;
+    }
+
+    /** Best-ranked name for the query, or null when nothing matches. */
+    public String best(String query) {
+        List<String> found = find(query);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /**
+     * Whether some name is the query or holds it as whole words ("budi" or "budi santoso"
+     * in "budi santoso"), unlike {@link #find}, where "bu" or "di s" match too.
+     */
+    public boolean containsWords(String query) {
+        if (query == null) return false;
+        String q = query.toLowerCase(Locale.ROOT).trim();
+        if (q.isEmpty()) return false;
+        for (int ord : candidates(q)) {
+            String name = names[ord];
+            for (int pos = name.indexOf(q); pos >= 0; pos = name.indexOf(q, pos + 1))
+                if (rank(name, q, pos) <= 1) return true;
+        }
+        return false;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /** Indexed names in ordinal order; shared, do not modify. */
+    String[] names() {
+        return names;
+    }
+
+    /** Gram → ascending name ordinals; shared, do not modify. */
+    Map<String, int[]> postings() {
+        return postings;
+    }
+
+    // === HELPERS ===
+    private int[] candidates(String q) {
+        if (q.length() <= GRAM) return postings.getOrDefault(q, EMPTY);
+
+        // intersect the rarest grams first; the final substring check removes false positives
+        List<int[]> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM <= q.length(); i++) {
+            int[] p = postings.get(q.substring(i, i + GRAM));
+            if (p == null) return EMPTY;
+            lists.add(p);
+        }
+        lists.sort(Comparator.comparingInt(a -> a.length));
+
+        int[] result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.length > 0; i++)
+            result = intersect(result, lists.get(i));
+        return result;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else { out[n++] = a[i]; i++; j++; }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static int rank(String name, String q, int pos) {
+        if (name.equals(q)) return 0;
+        boolean wordStart = pos == 0 || name.charAt(pos - 1) == ' ';
+        int end = pos + q.length();
+        boolean wordEnd = end == name.length() || name.charAt(end) == ' ';
+        if (wordStart && wordEnd) return 1;
+        if (pos == 0) return 2;
+        if (wordStart) return 3;
+        return 4;
+    }
+
+    private static class Match {
+        final int ord;
+        final int rank;
+        final int pos;
+
+        Match(int ord, int rank, int pos) {
+            this.ord = ord;
+            this.rank = rank;
+            this.pos = pos;
+        }
+    }
+}
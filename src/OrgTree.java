@@ -0,0 +1,161 @@
+import java.util.*;
+
+/**
+ * Immutable reporting hierarchy built from the {@code id_manajer} column.
+ *
+ * Nodes are the {@link EmployeeTable} ordinals, so the tree shares the table's ID column
+ * and ID lookup instead of keeping its own.
+ * Employees are numbered in a pre-order (Euler) tour, so everyone below a manager
+ * occupies the contiguous range {@code (tin[m], tout[m]]}: "is X in Y's reporting
+ * line", transitive report counts and the subordinate list need no traversal.
+ * Unknown or self-referencing managers make an employee a root, and manager cycles in
+ * the data are broken so every employee lands in the tree once.
+ */
+public final class OrgTree {
+
+    private final EmployeeTable employees;
+    private final String[] ids;
+    private final int[] parent;
+    private final int[] depth;
+    private final int[] tin;
+    private final int[] tout;
+    private final int[] tour;
+    private final int[] directReports;
+
+    public OrgTree(EmployeeTable employees) {
+        this.employees = employees;
+        ids = employees.ids;
+        int n = ids.length;
+
+        parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            int p = employees.manager(i);
+            parent[i] = p == i ? -1 : p;
+        }
+        breakCycles();
+
+        // children in CSR form, each list in ordinal order
+        directReports = new int[n];
+        for (int p : parent) if (p >= 0) directReports[p]++;
+        int[] firstChild = new int[n + 1];
+        for (int i = 0; i < n; i++) firstChild[i + 1] = firstChild[i] + directReports[i];
+        int[] children = new int[firstChild[n]];
+        int[] fill = Arrays.copyOf(firstChild, n);
+        for (int i = 0; i < n; i++) if (parent[i] >= 0) children[fill[parent[i]]++] = i;
+
+        // iterative pre-order tour from every root
+        depth = new int[n];
+        tin = new int[n];
+        tout = new int[n];
+        tour = new int[n];
+        int[] stack = new int[n];
+        int[] next = new int[n];
+        int time = 0;
+        for (int root = 0; root < n; root++) {
+            if (parent[root] >= 0) continue;
+            int sp = 0;
+            stack[sp++] = root;
+            tour[time] = root;
+            tin[root] = time++;
+            next[root] = firstChild[root];
+            while (sp > 0) {
+                int v = stack[sp - 1];
+                if (next[v] < firstChild[v + 1]) {
+                    int c = children[next[v]++];
+                    depth[c] = depth[v] + 1;
+                    tour[time] = c;
+                    tin[c] = time++;
+                    next[c] = firstChild[c];
+                    stack[sp++] = c;
+                } else {
+                    tout[v] = time - 1;
+                    sp--;
+                }
+            }
+        }
+    }
+
+    // === QUERIES ===
+    /** Manager IDs from the direct manager up to the top of the tree; empty for a root or unknown ID. */
+    public List<String> chainOfCommand(String id) {
+        Integer v = ordinal(id);
+        if (v == null) return List.of();
+        List<String> chain = new ArrayList<>(depth[v]);
+        for (int p = parent[v]; p >= 0; p = parent[p]) chain.add(ids[p]);
+        return chain;
+    }
+
+    /** How many levels {@code id} sits below {@code managerId}, or -1 when outside their reporting line. */
+    public int levelsBelow(String id, String managerId) {
+        Integer v = ordinal(id), m = ordinal(managerId);
+        if (v == null || m == null || v.equals(m)) return -1;
+        return tin[m] < tin[v] && tin[v] <= tout[m] ? depth[v] - depth[m] : -1;
+    }
+
+    public int directReportCount(String id) {
+        Integer v = ordinal(id);
+        return v == null ? 0 : directReports[v];
+    }
+
+    public int transitiveReportCount(String id) {
+        Integer v = ordinal(id);
+        return v == null ? 0 : tout[v] - tin[v];
+    }
+
+    /** Everyone below the manager in pre-order, i.e. each report followed by their own reports. */
+    public List<String> subordinates(String id) {
+        Integer v = ordinal(id);
+        if (v == null) return List.of();
+        List<String> out = new ArrayList<>(tout[v] - tin[v]);
+        for (int t = tin[v] + 1; t <= tout[v]; t++) out.add(ids[tour[t]]);
+        return out;
+    }
+
+    /** Depth of {@code id} relative to the top of its tree (0 for a root, -1 when unknown). */
+    public int depth(String id) {
+        Integer v = ordinal(id);
+        return v == null ? -1 : depth[v];
+    }
+
+    // === ORDINALS ===
+    /** Manager ordinal after cycles are broken, or -1 for a root. */
+    int parent(int v) {
+        return parent[v];
+    }
+
+    /** Tour position of {@code v}; its whole team, {@code v} included, is {@code [tin(v), tout(v)]}. */
+    int tin(int v) {
+        return tin[v];
+    }
+
+    int tout(int v) {
+        return tout[v];
+    }
+
+    /** Ordinal at tour position {@code t}. */
+    int atTour(int t) {
+        return tour[t];
+    }
+
+    // === HELPERS ===
+    private Integer ordinal(String id) {
+        int v = employees.ordinal(id);
+        return v < 0 ? null : v;
+    }
+
+    /** Cuts one edge of every manager cycle so the parent links form a forest. */
+    private void breakCycles() {
+        byte[] state = new byte[parent.length];   // 0 = unseen, 1 = on current path, 2 = done
+        for (int start = 0; start < parent.length; start++) {
+            int v = start;
+            while (v >= 0 && state[v] == 0) {
+                state[v] = 1;
+                v = parent[v];
+            }
+            int cut = v >= 0 && state[v] == 1 ? v : -1;   // walked back into the current path
+            // mark the path before cutting: the cut link is the one this walk follows round the cycle
+            for (v = start; v >= 0 && state[v] == 1; v = parent[v]) state[v] = 2;
+            if (cut >= 0) parent[cut] = -1;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket in front of a request quota, with a bounded FIFO queue of waiting calls.
+ *
+ * Tokens refill continuously at {@code perMinute} and at most {@code burst} are saved up.
+ * A call that finds no token waits its turn, unless {@code maxQueue} calls are already
+ * waiting or its turn would come later than {@code maxWaitMillis} from now; then it is
+ * shed immediately with {@link ShedException} so the caller can fall back instead.
+ * A {@code perMinute} of 0 or less disables limiting.
+ */
+public class RateLimiter {
+
+    /** Thrown instead of queueing a call the quota cannot serve in time. */
+    public static class ShedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public ShedException(String name, String reason) {
+            super("Kuota " + name + " penuh (" + reason + "), permintaan dialihkan");
+        }
+    }
+
+    private static final CompletableFuture<Void> GRANTED = CompletableFuture.completedFuture(null);
+
+    private final String name;
+    private final double tokensPerNano;
+    private final double burst;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+
+    private final ArrayDeque<CompletableFuture<Void>> waiting = new ArrayDeque<>();
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+    private boolean drainScheduled;
+
+    public RateLimiter(String name, double perMinute, int burst, int maxQueue, long maxWaitMillis) {
+        this.name = name;
+        this.tokensPerNano = perMinute / TimeUnit.MINUTES.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.tokens = this.burst;
+    }
+
+    /** Completes when the call may go out; fails with {@link ShedException} when it must not wait. */
+    public synchronized CompletableFuture<Void> acquire() {
+        if (tokensPerNano <= 0) return GRANTED;
+        refill();
+        if (waiting.isEmpty() && tokens >= 1) {
+            tokens -= 1;
+            return GRANTED;
+        }
+        if (waiting.size() >= maxQueue)
+            return CompletableFuture.failedFuture(new ShedException(name, "antrean penuh"));
+        double wait = (waiting.size() + 1 - tokens) / tokensPerNano;
+        if (wait > maxWaitNanos)
+            return CompletableFuture.failedFuture(new ShedException(name, "waktu tunggu terlalu lama"));
+
+        CompletableFuture<Void> turn = new CompletableFuture<>();
+        waiting.add(turn);
+        scheduleDrain();
+        return turn;
+    }
+
+    /** Calls currently waiting for a token. */
+    public synchronized int queueDepth() {
+        return waiting.size();
+    }
+
+    // === HELPERS ===
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+    }
+
+    /** Wakes up when the next token is due; guarded by {@code this}. */
+    private void scheduleDrain() {
+        if (drainScheduled) return;
+        drainScheduled = true;
+        long delay = (long) Math.ceil(Math.max(0, 1 - tokens) / tokensPerNano);
+        CompletableFuture.runAsync(this::drain, CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS));
+    }
+
+    private void drain() {
+        List<CompletableFuture<Void>> granted = new ArrayList<>();
+        synchronized (this) {
+            drainScheduled = false;
+            refill();
+            while (!waiting.isEmpty() && tokens >= 1) {
+                tokens -= 1;
+                granted.add(waiting.poll());
+            }
+            if (!waiting.isEmpty()) scheduleDrain();
+        }
+        // outside the lock: completing runs the caller's next stage on this thread
+        for (CompletableFuture<Void> turn : granted) turn.complete(null);
+    }
+}
@@ -1,12 +1,19 @@
 import java.io.IOException;
-import java.nio.file.*;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
 public class RealHRFunctions implements HRFunctions {
-    private final DataRetriever retriever = new DataRetriever();
+    private final DataRetriever retriever;
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("d MMMM yyyy");
 
+    public RealHRFunctions() {
+        this(DataRetriever.shared());
+    }
+
+    public RealHRFunctions(DataRetriever retriever) {
+        this.retriever = retriever;
+    }
+
     @Override
     public String applyForLeave(String employeeName, String leaveType, LocalDate startDate, LocalDate endDate) {
         String message = String.format(
@@ -17,24 +24,27 @@ public class RealHRFunctions implements HRFunctions {
         );
 
         try {
-            String basePath = System.getProperty("user.dir");
-            Path filePath = Paths.get(basePath, "data", "leave_requests.csv");
-
-            String newId = "LR" + String.format("%03d", (int) (Math.random() * 900) + 100);
             String empId = retriever.findEmployeeIdByPartialName(employeeName);
 
-            DateTimeFormatter csvFormatter = DateTimeFormatter.ofPattern("M/d/yyyy");
-            String newLine = String.join(",",
-                newId,
-                empId,
-                leaveType,
-                startDate.format(csvFormatter),
-                endDate.format(csvFormatter),
-                "Menunggu Persetujuan"
-            ) + "\n";
-
-            Files.write(filePath, newLine.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
-            retriever.refreshLeaveRequests();
+            long started = System.nanoTime();
+            LeaveHistory.Request conflict = null;
+            if (empId.equals("-")) {
+                retriever.appendLeaveRequest(LeaveHistory.Request.csvLine(retriever.nextLeaveRequestId(), empId,
+                    leaveType, startDate, endDate, LeaveHistory.Request.PENDING));
+            } else {
+                // the ID is allocated only once the request is accepted
+                conflict = retriever.appendLeaveRequestIfFree(empId, leaveType, startDate, endDate);
+            }
+            Metrics.get().recordSince("csv_io", "apply_leave", started);
+
+            if (conflict != null) {
+                return String.format(
+                    "Gagal mengajukan cuti: %s sudah memiliki pengajuan %s (cuti %s, %s hingga %s, status: %s) "
+                        + "yang bertabrakan dengan tanggal tersebut.",
+                    employeeName, conflict.id, conflict.type,
+                    conflict.start.format(formatter), conflict.end.format(formatter), conflict.status
+                );
+            }
         } catch (IOException e) {
             System.out.println("Gagal menyimpan data cuti: " + e.getMessage());
         }
@@ -50,10 +60,7 @@ public class RealHRFunctions implements HRFunctions {
         );
 
         try {
-            String basePath = System.getProperty("user.dir");
-            Path filePath = Paths.get(basePath, "data", "performance_reviews.csv");
-
-            String newId = "PR" + String.format("%03d", (int) (Math.random() * 900) + 100);
+            String newId = retriever.nextReviewId();
             String empId = retriever.findEmployeeIdByPartialName(employeeName);
             String reviewerId = retriever.findEmployeeIdByPartialName(reviewerName);
 
@@ -65,16 +72,18 @@ public class RealHRFunctions implements HRFunctions {
             }
 
             DateTimeFormatter csvFormatter = DateTimeFormatter.ofPattern("M/d/yyyy");
-            String newLine = String.join(",",
+            String newLine = CsvReader.format(
                 newId,
                 empId,
                 reviewerId,
                 reviewDate.format(csvFormatter),
                 "0",
                 "Terjadwal"
-            ) + "\n";
+            );
 
-            Files.write(filePath, newLine.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            long started = System.nanoTime();
+            AppendWriter.await(retriever.writer(DataRetriever.PERFORMANCE_REVIEWS).append(newLine));
+            Metrics.get().recordSince("csv_io", "schedule_review", started);
         } catch (IOException e) {
             System.out.println("Gagal menyimpan data review performa: " + e.getMessage());
         }
@@ -99,7 +108,7 @@ public class RealHRFunctions implements HRFunctions {
     public String lookupColleagueInfo(String colleagueName) {
         String info = retriever.getEmployeeInfo(colleagueName);
         if (info.contains("tidak ditemukan")) {
-            return "Rekan dengan nama " + colleagueName + " tidak ditemukan di database.";
+            return "Rekan dengan nama " + EmployeeTable.display(colleagueName) + " tidak ditemukan di database.";
         }
         return info;
     }
@@ -0,0 +1,210 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Load generator that replays a {@link SessionRecorder} log against this build.
+ *
+ * Every recorded input is classified by {@link IntentClassifierGemini}, talking to an embedded
+ * {@link StubGeminiServer} that answers with the recorded classifications, and executed by
+ * {@link ActionExecutor} over a scratch copy of the data directory, so replayed leave
+ * requests and approvals never touch the real CSVs; no {@link BinarySnapshot} is cached for
+ * that copy. Latency is measured from each query's scheduled start: with {@code --rate} or
+ * {@code --speed}, time spent queueing behind a saturated agent counts too.
+ *
+ *   java ReplayTool session.log [options]
+ *     --concurrency=N                  queries in flight at once, default 8
+ *     --rate=QPS                       start queries at a fixed rate; default 0 = as fast as possible
+ *     --speed=X                        keep the recorded arrival gaps, X times faster (when no --rate)
+ *     --repeat=N                       play the recording N times, default 1
+ *     --latency=MS --jitter=MS         stub Gemini delay, default 0
+ *     --error-rate=F --error-status=S  stub Gemini failures, default 0 and 503
+ *     --data=DIR                       dataset to copy, default data/
+ *
+ * Prints throughput and p50/p90/p99/max of the end-to-end, classify and execute times next
+ * to the recorded ones, plus errors, fallbacks and intents that differ from the recording.
+ */
+public final class ReplayTool {
+
+    private ReplayTool() { }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0 || args[0].startsWith("--")) {
+            System.out.println("Pemakaian: java ReplayTool <rekaman> [--concurrency=N] [--rate=QPS] [--speed=X] "
+                    + "[--repeat=N] [--latency=MS] [--jitter=MS] [--error-rate=F] [--error-status=S] [--data=DIR]");
+            return;
+        }
+        int concurrency = Math.max(1, Integer.parseInt(option(args, "concurrency", "8")));
+        double rate = Double.parseDouble(option(args, "rate", "0"));
+        double speed = Double.parseDouble(option(args, "speed", "0"));
+        int repeat = Math.max(1, Integer.parseInt(option(args, "repeat", "1")));
+        Path dataDir = Paths.get(option(args, "data", DataRetriever.defaultDataDir().toString()));
+
+        List<SessionRecorder.Entry> recorded = SessionRecorder.read(Paths.get(args[0]));
+        if (recorded.isEmpty()) {
+            System.out.println("Rekaman " + args[0] + " kosong.");
+            return;
+        }
+        Map<String, IntentClassifierGemini.ParsedIntent> answers = new HashMap<>();
+        for (SessionRecorder.Entry e : recorded) answers.put(e.input, e.parsed);
+
+        StubGeminiServer stub = new StubGeminiServer(0)
+                .withLatency(Long.parseLong(option(args, "latency", "0")), Long.parseLong(option(args, "jitter", "0")))
+                .withErrors(Double.parseDouble(option(args, "error-rate", "0")),
+                        Integer.parseInt(option(args, "error-status", "503")))
+                .withAnswers(answers)
+                .start();
+        Path scratch = copyData(dataDir);
+        // a snapshot of the throwaway copy would only pile up in the cache directory
+        System.setProperty("hr.snapshot", "false");
+        DataRetriever retriever = new DataRetriever(scratch);
+        try {
+            Result result = replay(recorded, repeat, concurrency, rate, speed,
+                    new IntentClassifierGemini(stub.getEndpoint(), retriever),
+                    new ActionExecutor(retriever));
+            result.print(recorded, concurrency);
+        } finally {
+            retriever.close();
+            stub.stop();
+            deleteRecursively(scratch);
+        }
+    }
+
+    // === REPLAY ===
+    private static Result replay(List<SessionRecorder.Entry> recorded, int repeat, int concurrency,
+                                 double rate, double speed, IntentClassifierGemini clf, ActionExecutor executor)
+            throws InterruptedException {
+        int n = recorded.size() * repeat;
+        Result r = new Result(n);
+        long fallbacksBefore = Metrics.get().count("fallback");
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency, task -> {
+            Thread t = new Thread(task, "hr-replay");
+            t.setDaemon(true);
+            return t;
+        });
+
+        long span = recorded.get(recorded.size() - 1).at - recorded.get(0).at;
+        long started = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            SessionRecorder.Entry e = recorded.get(i % recorded.size());
+            long due;
+            if (rate > 0) {
+                due = started + (long) (i * 1e9 / rate);
+            } else if (speed > 0) {
+                long offsetMillis = (i / recorded.size()) * (span + 1) + (e.at - recorded.get(0).at);
+                due = started + (long) (offsetMillis * 1e6 / speed);
+            } else {
+                due = -1;   // closed loop: start as soon as a worker is free
+            }
+            if (due > 0) for (long now; (now = System.nanoTime()) < due; ) LockSupport.parkNanos(due - now);
+
+            int slot = i;
+            pool.execute(() -> r.run(slot, e, due, clf, executor));
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.DAYS);
+        r.elapsedNanos = System.nanoTime() - started;
+        r.fallbacks = Metrics.get().count("fallback") - fallbacksBefore;
+        return r;
+    }
+
+    private static final class Result {
+        final long[] total;
+        final long[] classify;
+        final long[] execute;
+        final AtomicInteger errors = new AtomicInteger();
+        final AtomicInteger mismatches = new AtomicInteger();
+        long elapsedNanos;
+        long fallbacks;
+
+        Result(int n) {
+            total = new long[n];
+            classify = new long[n];
+            execute = new long[n];
+        }
+
+        void run(int slot, SessionRecorder.Entry e, long due, IntentClassifierGemini clf, ActionExecutor executor) {
+            long begin = System.nanoTime();
+            try {
+                IntentClassifierGemini.ParsedIntent parsed = clf.parse(e.input);
+                long classified = System.nanoTime();
+                executor.execute(parsed, Speculation.NONE);
+                long done = System.nanoTime();
+                if (!parsed.intent.equals(e.parsed.intent)) mismatches.incrementAndGet();
+                classify[slot] = classified - begin;
+                execute[slot] = done - classified;
+                total[slot] = done - (due > 0 ? due : begin);
+            } catch (RuntimeException ex) {
+                errors.incrementAndGet();
+                total[slot] = System.nanoTime() - (due > 0 ? due : begin);
+            }
+        }
+
+        void print(List<SessionRecorder.Entry> recorded, int concurrency) {
+            int n = total.length;
+            double seconds = elapsedNanos / 1e9;
+            System.out.printf("Replay selesai: %d query dalam %.0f ms, %.1f query/detik (concurrency %d)%n",
+                    n, elapsedNanos / 1e6, n / seconds, concurrency);
+            System.out.printf("Error: %d, fallback: %d, intent berbeda dari rekaman: %d%n",
+                    errors.get(), fallbacks, mismatches.get());
+
+            long[] recordedClassify = new long[recorded.size()];
+            long[] recordedExecute = new long[recorded.size()];
+            long[] recordedTotal = new long[recorded.size()];
+            for (int i = 0; i < recorded.size(); i++) {
+                recordedClassify[i] = recorded.get(i).classifyMicros * 1000;
+                recordedExecute[i] = recorded.get(i).executeMicros * 1000;
+                recordedTotal[i] = recordedClassify[i] + recordedExecute[i];
+            }
+            System.out.printf("%-20s %10s %10s %10s %10s%n", "tahap (ms)", "p50", "p90", "p99", "max");
+            row("total", total);
+            row("classify", classify);
+            row("execute", execute);
+            row("total (rekaman)", recordedTotal);
+            row("classify (rekaman)", recordedClassify);
+            row("execute (rekaman)", recordedExecute);
+        }
+
+        private static void row(String name, long[] nanos) {
+            long[] sorted = nanos.clone();
+            Arrays.sort(sorted);
+            System.out.printf("%-20s %10.2f %10.2f %10.2f %10.2f%n", name,
+                    percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.90) / 1e6,
+                    percentile(sorted, 0.99) / 1e6, sorted[sorted.length - 1] / 1e6);
+        }
+
+        /** Nearest-rank percentile of a sorted, non-empty array. */
+        private static long percentile(long[] sorted, double q) {
+            int rank = (int) Math.ceil(q * sorted.length);
+            return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+        }
+    }
+
+    // === HELPERS ===
+    private static String option(String[] args, String name, String fallback) {
+        String prefix = "--" + name + "=";
+        for (String arg : args)
+            if (arg.startsWith(prefix)) return arg.substring(prefix.length());
+        return fallback;
+    }
+
+    /** The dataset's CSVs in a fresh temporary directory. */
+    private static Path copyData(Path dataDir) throws IOException {
+        Path scratch = Files.createTempDirectory("hr-replay");
+        try (Stream<Path> files = Files.list(dataDir)) {
+            for (Path f : (Iterable<Path>) files::iterator)
+                if (f.getFileName().toString().endsWith(".csv")) Files.copy(f, scratch.resolve(f.getFileName()));
+        }
+        return scratch;
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path f : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.deleteIfExists(f);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Append-only log of handled queries for {@link ReplayTool}, one JSON object per line:
+ *
+ *   {"at":1760774400123,"in":"info budi","p":{"intent":...},"out":"Informasi Karyawan: ...",
+ *    "us":{"classify":812,"execute":95}}
+ *
+ * {@code at} is the arrival time in epoch milliseconds, {@code p} the {@code ParsedIntent}
+ * as {@link IntentClassifierGemini.ParsedIntent#toJson()} writes it, and {@code us} the stage
+ * timings in microseconds; server requests also carry their {@code tenant}. Lines go through
+ * an {@link AppendWriter} without fsync, so recording never waits for the disk and lines from
+ * concurrent requests never interleave. Enable with {@code --record=<file>}.
+ */
+public final class SessionRecorder implements AutoCloseable {
+
+    private final AppendWriter writer;
+
+    public SessionRecorder(Path file) {
+        this.writer = new AppendWriter(file, AppendWriter.Durability.NONE);
+    }
+
+    public void record(String tenant, String input, IntentClassifierGemini.ParsedIntent parsed, String result,
+                       long classifyNanos, long executeNanos) {
+        JSONObject line = new JSONObject()
+                .put("at", System.currentTimeMillis())
+                .put("in", input)
+                .put("p", parsed.toJson())
+                .put("out", result)
+                .put("us", new JSONObject()
+                        .put("classify", TimeUnit.NANOSECONDS.toMicros(classifyNanos))
+                        .put("execute", TimeUnit.NANOSECONDS.toMicros(executeNanos)));
+        if (tenant != null && !tenant.isBlank()) line.put("tenant", tenant);
+        writer.append(line.toString()).exceptionally(e -> {
+            Metrics.get().increment("record.failure");
+            return null;
+        });
+    }
+
+    /** Waits for the queued lines to reach the file. */
+    @Override
+    public void close() {
+        writer.close();
+    }
+
+    /** Every well-formed entry of a recording, in file order; damaged lines are skipped. */
+    static List<Entry> read(Path file) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            for (String line; (line = in.readLine()) != null; ) {
+                if (line.isBlank()) continue;
+                try {
+                    JSONObject json = new JSONObject(line);
+                    JSONObject us = json.optJSONObject("us");
+                    entries.add(new Entry(json.getLong("at"), json.optString("tenant", null), json.getString("in"),
+                            IntentClassifierGemini.ParsedIntent.fromJson(json.getJSONObject("p")),
+                            json.optString("out", ""),
+                            us == null ? 0 : us.optLong("classify"), us == null ? 0 : us.optLong("execute")));
+                } catch (JSONException e) {
+                    Metrics.get().increment("record.bad_line");
+                }
+            }
+        }
+        return entries;
+    }
+
+    static final class Entry {
+        final long at;
+        final String tenant;
+        final String input;
+        final IntentClassifierGemini.ParsedIntent parsed;
+        final String result;
+        final long classifyMicros;
+        final long executeMicros;
+
+        Entry(long at, String tenant, String input, IntentClassifierGemini.ParsedIntent parsed, String result,
+              long classifyMicros, long executeMicros) {
+            this.at = at;
+            this.tenant = tenant;
+            this.input = input;
+            this.parsed = parsed;
+            this.result = result;
+            this.classifyMicros = classifyMicros;
+            this.executeMicros = executeMicros;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiFunction;
+
+/**
+ * Answers rendered ahead of time while the LLM is still classifying the input.
+ *
+ * Employee names are spotted in the raw text with a whole-word {@link NameIndex} match,
+ * and the read-only intents such a query usually maps to (info, colleague lookup, leave
+ * balance, leave status) are rendered for them on a background thread. If the parsed
+ * intent and name agree and the data snapshot is still the one the answer was rendered
+ * from, {@link ActionExecutor} returns the prerendered text instead of computing it again.
+ * Anything else, including an answer that is not ready yet, falls through to a normal
+ * execution. Settings:
+ *
+ *   hr.prefetch           "false" disables speculation
+ *   hr.prefetch.maxNames  names rendered per input, default 2
+ */
+public final class Speculation {
+
+    static final Speculation NONE = new Speculation(Map.of());
+
+    static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("hr.prefetch"));
+    private static final int MAX_NAMES = Integer.getInteger("hr.prefetch.maxNames", 2);
+    private static final List<String> INTENTS =
+            List.of("get_employee_info", "lookup_colleague", "get_leave_balance", "check_leave_status");
+    private static final ExecutorService POOL = Threads.newThreadPerTaskExecutor();
+
+    /** (intent, name) → rendered answer, or null when the data changed while rendering. */
+    private final Map<String, CompletableFuture<Answer>> answers;
+
+    private Speculation(Map<String, CompletableFuture<Answer>> answers) {
+        this.answers = answers;
+    }
+
+    /** Starts rendering in the background; returns at once. */
+    static Speculation start(String input, DataRetriever retriever,
+                             BiFunction<String, Map<String, String>, String> render) {
+        if (!ENABLED) return NONE;
+        HRDataSnapshot s = retriever.snapshot();
+        List<String> names = spotNames(input, s.nameIndex);
+        if (names.isEmpty()) return NONE;
+
+        Map<String, CompletableFuture<Answer>> answers = new HashMap<>();
+        for (String name : names) {
+            for (String intent : INTENTS) {
+                answers.put(key(intent, name), CompletableFuture.supplyAsync(() -> {
+                    long started = System.nanoTime();
+                    HRDataSnapshot before = retriever.snapshot();
+                    String text = render.apply(intent, Map.of("name", name));
+                    Metrics.get().recordSince("prefetch", intent, started);
+                    return retriever.snapshot() == before ? new Answer(before, text) : null;
+                }, POOL));
+            }
+        }
+        Metrics.get().increment("prefetch.started");
+        return new Speculation(answers);
+    }
+
+    /**
+     * The prerendered answer for this intent and these entities, or null when there is
+     * none, it is not finished, or it was rendered from another snapshot than {@code current}.
+     */
+    String answer(String intent, Map<String, String> entities, HRDataSnapshot current) {
+        if (answers.isEmpty()) return null;
+        String name = null;
+        for (Map.Entry<String, String> e : entities.entrySet()) {
+            String value = e.getValue() == null ? "" : e.getValue().trim();
+            if (e.getKey().equals("name")) name = value.toLowerCase(Locale.ROOT);
+            else if (!value.isEmpty()) return miss();   // e.g. a leave type: not what was rendered
+        }
+        CompletableFuture<Answer> f = name == null ? null : answers.get(key(intent, name));
+        if (f == null) return miss();
+
+        Answer a = f.getNow(null);
+        if (a == null || a.snapshot != current) {
+            Metrics.get().increment("prefetch.stale");
+            return null;
+        }
+        Metrics.get().increment("prefetch.hit");
+        return a.text;
+    }
+
+    // === HELPERS ===
+    /**
+     * Words and two-word phrases of the input that are a whole word of some employee name,
+     * longest first at each position, e.g. "rina wijaya" rather than "rina" and "wijaya".
+     */
+    static List<String> spotNames(String input, NameIndex index) {
+        String[] words = input.toLowerCase(Locale.ROOT).split("[^\\p{L}'.]+");
+        List<String> names = new ArrayList<>(MAX_NAMES);
+        for (int i = 0; i < words.length && names.size() < MAX_NAMES; i++) {
+            if (!candidateWord(words[i])) continue;
+            if (i + 1 < words.length && candidateWord(words[i + 1])
+                    && isNameWords(words[i] + " " + words[i + 1], index)) {
+                names.add(words[i] + " " + words[++i]);
+            } else if (isNameWords(words[i], index)) {
+                names.add(words[i]);
+            }
+        }
+        return names;
+    }
+
+    private static boolean candidateWord(String w) {
+        return w.length() >= 3 && !LocalIntentClassifier.STOPWORDS.contains(w);
+    }
+
+    private static boolean isNameWords(String words, NameIndex index) {
+        String best = index.best(words);
+        return best != null && (" " + best + " ").contains(" " + words + " ");
+    }
+
+    private static String key(String intent, String name) {
+        return intent + '\u0000' + name;
+    }
+
+    private static String miss() {
+        Metrics.get().increment("prefetch.miss");
+        return null;
+    }
+
+    private static final class Answer {
+        final HRDataSnapshot snapshot;
+        final String text;
+
+        Answer(HRDataSnapshot snapshot, String text) {
+            this.snapshot = snapshot;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Local stand-in for the Gemini generateContent endpoint, for exercising the client
+ * (timeouts, retries, circuit breaker) and for load tests without touching the real API.
+ *
+ * The reply text is produced by {@link LocalIntentClassifier} for each quoted "Input:"
+ * in the user turn (a JSON array when there are several), unless {@link #withAnswers}
+ * supplied a recorded classification for that exact input; the system instruction with
+ * its few-shot examples is ignored. Latency and failures can be injected:
+ *   latencyMs   fixed delay before replying
+ *   jitterMs    extra uniform random delay
+ *   errorRate   fraction of requests answered with {@code errorStatus} (default 503)
+ *
+ * Run standalone with {@code java StubGeminiServer [port]}, then point the agent at it
+ * with {@code -Dhr.gemini.endpoint=http://localhost:<port>/}.
+ */
+public class StubGeminiServer {
+
+    private static final Pattern INPUT = Pattern.compile("Input: \"((?:[^\"\\\\]|\\\\.)*)\"");
+
+    private final HttpServer server;
+    private final LocalIntentClassifier classifier = new LocalIntentClassifier();
+    private final AtomicLong requests = new AtomicLong();
+
+    private volatile long latencyMs;
+    private volatile long jitterMs;
+    private volatile double errorRate;
+    private volatile int errorStatus = 503;
+    private volatile Map<String, IntentClassifierGemini.ParsedIntent> answers = Map.of();
+
+    public StubGeminiServer(int port) throws IOException {
+        server = AgentServer.newHttpServer(new InetSocketAddress("127.0.0.1", port));
+        server.setExecutor(Threads.newThreadPerTaskExecutor());
+        server.createContext("/", this::handle);
+    }
+
+    public StubGeminiServer start() {
+        server.start();
+        return this;
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    public String getEndpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    // === FAULT INJECTION ===
+    public StubGeminiServer withLatency(long latencyMs, long jitterMs) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        return this;
+    }
+
+    public StubGeminiServer withErrors(double errorRate, int errorStatus) {
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+        return this;
+    }
+
+    /** Replies with these classifications for exactly matching inputs, e.g. the ones a {@link SessionRecorder} logged. */
+    public StubGeminiServer withAnswers(Map<String, IntentClassifierGemini.ParsedIntent> answers) {
+        this.answers = Map.copyOf(answers);
+        return this;
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    // === HANDLER ===
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            String prompt;
+            try (InputStream in = exchange.getRequestBody()) {
+                prompt = promptText(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+
+            long delay = latencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+            if (delay > 0) Thread.sleep(delay);
+
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                send(exchange, errorStatus, new JSONObject().put("error", new JSONObject()
+                        .put("code", errorStatus).put("message", "injected failure")));
+                return;
+            }
+
+            send(exchange, 200, new JSONObject().put("candidates", new JSONArray()
+                    .put(new JSONObject().put("content", new JSONObject()
+                            .put("parts", new JSONArray().put(new JSONObject().put("text", reply(prompt))))))));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String reply(String prompt) {
+        Matcher m = INPUT.matcher(prompt);
+        JSONArray answers = new JSONArray();
+        while (m.find()) answers.put(classify(new JSONArray("[\"" + m.group(1) + "\"]").getString(0)));
+
+        if (answers.length() == 1) return "```json\n" + answers.getJSONObject(0) + "\n```";
+        return "```json\n" + answers + "\n```";
+    }
+
+    private JSONObject classify(String input) {
+        var parsed = answers.get(input);
+        if (parsed == null) parsed = classifier.classify(input, 0);
+        if (parsed == null) return new JSONObject().put("intent", "unknown");
+        return toJson(parsed);
+    }
+
+    /** The reply shape the prompt asks for: flat entities, compound queries under "intents". */
+    private static JSONObject toJson(IntentClassifierGemini.ParsedIntent parsed) {
+        if (parsed.isCompound()) {
+            JSONArray intents = new JSONArray();
+            for (var part : parsed.parts) intents.put(toJson(part));
+            return new JSONObject().put("intents", intents);
+        }
+        JSONObject obj = new JSONObject().put("intent", parsed.intent);
+        parsed.entities.forEach(obj::put);
+        return obj;
+    }
+
+    /** Text of the user turns; {@code systemInstruction} is not part of it. */
+    private static String promptText(String body) {
+        try {
+            JSONObject json = new JSONObject(body);
+            StringBuilder sb = new StringBuilder();
+            JSONArray contents = json.optJSONArray("contents");
+            for (int i = 0; contents != null && i < contents.length(); i++) {
+                JSONArray parts = contents.getJSONObject(i).optJSONArray("parts");
+                for (int j = 0; parts != null && j < parts.length(); j++)
+                    sb.append(parts.getJSONObject(j).optString("text", ""));
+            }
+            return sb.toString();
+        } catch (RuntimeException e) {
+            return "";
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, JSONObject body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+        StubGeminiServer stub = new StubGeminiServer(port)
+                .withLatency(Long.getLong("stub.latencyMs", 0L), Long.getLong("stub.jitterMs", 0L))
+                .withErrors(Double.parseDouble(System.getProperty("stub.errorRate", "0")),
+                        Integer.getInteger("stub.errorStatus", 503))
+                .start();
+        System.out.println("Stub Gemini berjalan di " + stub.getEndpoint());
+    }
+}
@@ -0,0 +1,218 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+
+/**
+ * Per-subsidiary datasets served from one process.
+ *
+ * Each tenant is a subdirectory of {@code hr.tenants.dir} laid out like {@code data/}
+ * (employees.csv, leave_requests.csv, ...). A tenant is loaded the first time a request
+ * names it; concurrent first requests share that one load. Loaded tenants stay resident
+ * in least-recently-used order until their combined CSV size passes the budget, then the
+ * least recently used ones are dropped. Requests hold a {@link Lease} while they run; a
+ * dropped tenant is closed when its last lease is released, and a request arriving before
+ * that takes it back instead of opening its files a second time. With watching on, every
+ * resident tenant reloads in the background when its files change, like {@code --watch}
+ * does for {@code data/}. Requests that name no
+ * tenant (or "default") use the process's regular data directory. Settings:
+ *
+ *   hr.tenants.dir    directory holding one folder per tenant, default ./tenants
+ *   hr.tenants.maxMB  CSV megabytes kept resident across tenants, default 256
+ */
+public final class Tenants {
+
+    static final String DEFAULT = "default";
+
+    private final ActionExecutor defaultExecutor;
+    private final Path root;
+    private final long maxBytes;
+    private final boolean watch;
+    /** Access-ordered, eldest first; guarded by {@code this}. */
+    private final LinkedHashMap<String, Tenant> resident = new LinkedHashMap<>(16, 0.75f, true);
+    /** Evicted tenants that still have leases open; guarded by {@code this}. */
+    private final Map<String, Tenant> draining = new HashMap<>();
+    private long residentBytes;
+
+    public Tenants(ActionExecutor defaultExecutor, boolean watch) {
+        this(defaultExecutor, defaultRoot(), Long.getLong("hr.tenants.maxMB", 256) << 20, watch);
+    }
+
+    public Tenants(ActionExecutor defaultExecutor, Path root, long maxBytes, boolean watch) {
+        this.defaultExecutor = defaultExecutor;
+        this.root = root;
+        this.maxBytes = maxBytes;
+        this.watch = watch;
+    }
+
+    public static Path defaultRoot() {
+        String dir = System.getProperty("hr.tenants.dir");
+        if (dir != null && !dir.isBlank()) return Paths.get(dir);
+        return Paths.get(System.getProperty("user.dir")).resolve("tenants");
+    }
+
+    /**
+     * Executor over the tenant's data, loading it first when it is not resident. The tenant
+     * stays open until the lease is closed, even if it is evicted meanwhile.
+     *
+     * @throws IllegalArgumentException when there is no such tenant
+     */
+    public Lease acquire(String tenant) {
+        String name = tenant == null ? "" : tenant.trim().toLowerCase(Locale.ROOT);
+        if (name.isEmpty() || name.equals(DEFAULT)) return new Lease(defaultExecutor, null);
+
+        Tenant t;
+        boolean load = false;
+        synchronized (this) {
+            t = resident.get(name);
+            if (t == null && (t = draining.remove(name)) != null) {
+                // evicted but still in use: take it back rather than open the files twice
+                t.evicted = false;
+                resident.put(name, t);
+                residentBytes += t.bytes;
+            }
+            if (t == null) {
+                Path dir = root.resolve(name);
+                if (!name.matches("[a-z0-9_-]+") || !Files.isDirectory(dir))
+                    throw new IllegalArgumentException("Tenant tidak dikenal: " + tenant);
+                t = new Tenant(name, dir);
+                resident.put(name, t);
+                load = true;
+            }
+            t.users++;
+        }
+        try {
+            if (load) load(t);
+            return new Lease(t.executor.join(), t);
+        } catch (RuntimeException e) {
+            release(t);
+            throw e instanceof CompletionException && e.getCause() instanceof RuntimeException re ? re : e;
+        }
+    }
+
+    /** Names of the tenants currently in memory, least recently used first. */
+    public synchronized List<String> resident() {
+        return new ArrayList<>(resident.keySet());
+    }
+
+    /** Closes every tenant once its last lease is released. */
+    public void close() {
+        List<Tenant> closing = new ArrayList<>();
+        synchronized (this) {
+            for (Tenant t : resident.values()) {
+                t.evicted = true;
+                if (t.users == 0) closing.add(t);
+                else draining.put(t.name, t);
+            }
+            resident.clear();
+            residentBytes = 0;
+        }
+        for (Tenant t : closing) t.close();
+    }
+
+    /** One user's hold on a tenant; closing it lets an evicted tenant be closed. */
+    public final class Lease implements AutoCloseable {
+        private final ActionExecutor executor;
+        private Tenant tenant;
+
+        private Lease(ActionExecutor executor, Tenant tenant) {
+            this.executor = executor;
+            this.tenant = tenant;
+        }
+
+        public ActionExecutor executor() {
+            return executor;
+        }
+
+        @Override
+        public void close() {
+            Tenant t = tenant;
+            tenant = null;
+            if (t != null) release(t);
+        }
+    }
+
+    // === HELPERS ===
+    private void load(Tenant t) {
+        long started = System.nanoTime();
+        try {
+            t.bytes = csvBytes(t.dir);
+            t.retriever = new DataRetriever(t.dir);
+            if (watch) t.retriever.startWatching();
+            t.executor.complete(new ActionExecutor(t.retriever));
+            Metrics.get().increment("tenants.load");
+            Metrics.get().recordSince("tenant", "load", started);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                resident.remove(t.name, t);
+            }
+            t.executor.completeExceptionally(e);
+            throw e;
+        }
+
+        List<Tenant> evicted = new ArrayList<>();
+        synchronized (this) {
+            if (resident.get(t.name) == t) residentBytes += t.bytes;
+            else t.evicted = true;   // closed while loading; the last release closes it
+            Iterator<Tenant> eldest = resident.values().iterator();
+            while (residentBytes > maxBytes && eldest.hasNext()) {
+                Tenant e = eldest.next();
+                if (e == t || !e.executor.isDone()) continue;   // keep the newcomer and loads in flight
+                eldest.remove();
+                residentBytes -= e.bytes;
+                e.evicted = true;
+                Metrics.get().increment("tenants.evict");
+                if (e.users == 0) evicted.add(e);
+                else draining.put(e.name, e);
+            }
+        }
+        for (Tenant e : evicted) e.close();
+    }
+
+    private void release(Tenant t) {
+        synchronized (this) {
+            if (--t.users > 0 || !t.evicted) return;
+            draining.remove(t.name, t);
+            resident.remove(t.name, t);
+        }
+        t.close();
+    }
+
+    /** Total size of the tenant's CSVs, as a stand-in for the memory its snapshot takes. */
+    private static long csvBytes(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".csv")).mapToLong(f -> {
+                try {
+                    return Files.size(f);
+                } catch (IOException e) {
+                    return 0;
+                }
+            }).sum();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static final class Tenant {
+        final String name;
+        final Path dir;
+        final CompletableFuture<ActionExecutor> executor = new CompletableFuture<>();
+        volatile DataRetriever retriever;
+        long bytes;
+        /** Open leases; guarded by the {@link Tenants} instance, like {@link #evicted}. */
+        int users;
+        boolean evicted;
+
+        Tenant(String name, Path dir) {
+            this.name = name;
+            this.dir = dir;
+        }
+
+        void close() {
+            DataRetriever r = retriever;
+            if (r != null) r.close();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/** Executors shared by the server, compound-query fan-out and speculation. */
+final class Threads {
+
+    private Threads() { }
+
+    /**
+     * Virtual threads when running on JDK 21+, otherwise a cached pool of daemon platform
+     * threads. Looked up reflectively because the build still targets Java 17.
+     */
+    static ExecutorService newThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "hr-agent-worker");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
@@ -0,0 +1,44 @@
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActionExecutorCompoundTest {
+
+    @TempDir
+    Path dir;
+
+    private static IntentClassifierGemini.ParsedIntent part(String intent, String... entities) {
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < entities.length; i += 2) map.put(entities[i], entities[i + 1]);
+        return new IntentClassifierGemini.ParsedIntent(intent, map);
+    }
+
+    @RepeatedTest(5)
+    void laterPartsSeeEarlierWrites() throws Exception {
+        DataRetriever retriever = new DataRetriever(TestData.copyTo(dir));
+        ActionExecutor executor = new ActionExecutor(retriever);
+        IntentClassifierGemini.ParsedIntent compound = IntentClassifierGemini.ParsedIntent.of(List.of(
+                part("get_manager", "name", "budi"),
+                part("apply_leave", "name", "budi", "type", "tahunan", "start_date", "2031-03-03", "end_date", "2031-03-05"),
+                part("check_leave_status", "name", "budi"),
+                part("get_employee_info", "name", "rina"),
+                part("apply_leave", "name", "budi", "type", "tahunan", "start_date", "2031-03-04", "end_date", "2031-03-06"),
+                part("get_leave_balance", "name", "budi")));
+
+        String[] answers = executor.execute(compound, Speculation.NONE).split("\n\n");
+        assertEquals(6, answers.length, Arrays.toString(answers));
+        assertTrue(answers[2].contains(LeaveHistory.Request.PENDING), answers[2]);
+        // the second request overlaps the first, which must already be recorded
+        assertTrue(answers[1].startsWith("KONFIRMASI"), answers[1]);
+        assertTrue(answers[4].startsWith("Gagal"), answers[4]);
+        LeaveHistory history = retriever.snapshot().leaveHistoryOf("101");
+        int in2031 = 0;
+        for (int i = 0; i < history.size(); i++) if (history.get(i).start.getYear() == 2031) in2031++;
+        assertEquals(1, in2031);
+        retriever.close();
+    }
+}
@@ -0,0 +1,37 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActionExecutorNamesTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void answersUseTheTableNames() throws Exception {
+        DataRetriever r = new DataRetriever(TestData.copyTo(dir));
+        ActionExecutor executor = new ActionExecutor(r);
+
+        String applied = executor.execute("apply_leave", Map.of("name", "budi", "type", "TAHUNAN",
+                "start_date", "2031-03-02", "end_date", "2031-03-04"));
+        assertTrue(applied.contains("Budi Santoso (jenis: Tahunan)"), applied);
+        assertEquals("Tahunan", r.snapshot().leaveHistoryOf("101").latest().type);
+
+        String review = executor.execute("schedule_review", Map.of("name", "rina", "reviewer", "santi",
+                "date", "2031-03-10"));
+        assertTrue(review.contains("Rina Wijaya dengan Santi Putri"), review);
+        r.close();
+    }
+
+    @Test
+    void unknownNamesAreCapitalized() throws Exception {
+        DataRetriever r = new DataRetriever(TestData.copyTo(dir));
+        assertEquals("Joko Anwar", r.displayName("jOKO anwar"));
+        assertEquals("Cuti Khusus", r.leaveTypeName("cuti KHUSUS"));
+        r.close();
+    }
+}
@@ -0,0 +1,90 @@
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AgentServerTest {
+
+    @TempDir
+    Path dir;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private AgentServer server;
+
+    private AgentServer start(ActionExecutor executor, int maxConcurrent) throws Exception {
+        Tenants tenants = new Tenants(executor, Files.createDirectory(dir.resolve("tenants")), Long.MAX_VALUE, false);
+        server = new AgentServer(new IntentClassifierGemini("http://127.0.0.1:1/"), tenants, 0, maxConcurrent);
+        server.start();
+        return server;
+    }
+
+    private HttpResponse<String> post(String body) throws Exception {
+        return http.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + "/query"))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private ActionExecutor executor() throws Exception {
+        return new ActionExecutor(new DataRetriever(TestData.copyTo(Files.createDirectory(dir.resolve("data")))));
+    }
+
+    @AfterEach
+    void stop() {
+        if (server != null) server.stop();
+    }
+
+    @Test
+    void answersQueries() throws Exception {
+        start(executor(), 4);
+        HttpResponse<String> response = post("{\"input\": \"siapa manajer budi\"}");
+        assertEquals(200, response.statusCode());
+        JSONObject json = new JSONObject(response.body());
+        assertEquals("get_manager", json.getString("intent"));
+        assertTrue(json.getString("result").contains("Santi Putri"));
+    }
+
+    @Test
+    void rejectsBadRequestsAndUnknownTenants() throws Exception {
+        start(executor(), 4);
+        assertEquals(400, post("bukan json").statusCode());
+        assertEquals(400, post("{\"input\": \" \"}").statusCode());
+        HttpResponse<String> unknown = post("{\"input\": \"siapa manajer budi\", \"tenant\": \"tidak-ada\"}");
+        assertEquals(404, unknown.statusCode());
+        assertTrue(new JSONObject(unknown.body()).getString("error").contains("tidak-ada"));
+
+        HttpResponse<String> get = http.send(HttpRequest.newBuilder(
+                URI.create("http://127.0.0.1:" + server.getPort() + "/query")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, get.statusCode());
+    }
+
+    @Test
+    void busyServerAnswers503() throws Exception {
+        start(executor(), 0);
+        assertEquals(503, post("{\"input\": \"siapa manajer budi\"}").statusCode());
+    }
+
+    @Test
+    void failuresBeforeTheReplyAnswer500() throws Exception {
+        ActionExecutor failing = new ActionExecutor(executor().retriever()) {
+            @Override
+            public String execute(IntentClassifierGemini.ParsedIntent parsed, Speculation speculation) {
+                throw new IllegalStateException("rusak");
+            }
+        };
+        start(failing, 4);
+        HttpResponse<String> response = post("{\"input\": \"siapa manajer budi\"}");
+        assertEquals(500, response.statusCode());
+        assertTrue(new JSONObject(response.body()).has("error"));
+        // the server keeps serving
+        assertEquals(400, post("{}").statusCode());
+    }
+}
@@ -0,0 +1,61 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppendWriterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void concurrentAppendsLandWholeAndReportTheirPositions() throws Exception {
+        Path file = dir.resolve("log.csv");
+        Files.writeString(file, "header\n");
+        List<CompletableFuture<AppendWriter.Position>> futures = new ArrayList<>();
+        AppendWriter w = new AppendWriter(file, AppendWriter.Durability.NONE);
+        try (w) {
+            ExecutorService pool = Executors.newFixedThreadPool(8);
+            List<Future<CompletableFuture<AppendWriter.Position>>> submitted = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String line = "row-" + i;
+                submitted.add(pool.submit(() -> w.append(line)));
+            }
+            for (Future<CompletableFuture<AppendWriter.Position>> f : submitted) futures.add(f.get());
+            pool.shutdown();
+            for (CompletableFuture<AppendWriter.Position> f : futures) AppendWriter.await(f);
+        }
+        assertEquals(0, w.pending());
+
+        String content = Files.readString(file);
+        List<String> lines = content.lines().toList();
+        assertEquals(201, lines.size());
+        assertEquals(200, new HashSet<>(lines.subList(1, lines.size())).size());
+        for (int i = 0; i < futures.size(); i++) {
+            AppendWriter.Position p = futures.get(i).get();
+            assertEquals("row-" + i + "\n", content.substring((int) p.start, (int) p.end));
+        }
+    }
+
+    @Test
+    void appendAfterCloseFails() {
+        AppendWriter w = new AppendWriter(dir.resolve("log.csv"), AppendWriter.Durability.NONE);
+        w.close();
+        assertThrows(IOException.class, () -> AppendWriter.await(w.append("late")));
+    }
+
+    @Test
+    void doesNotGlueOntoALineWithoutNewline() throws Exception {
+        Path file = dir.resolve("log.csv");
+        Files.writeString(file, "header\nhand-edited");
+        try (AppendWriter w = new AppendWriter(file, AppendWriter.Durability.NONE)) {
+            AppendWriter.await(w.append("next"));
+        }
+        assertEquals(List.of("header", "hand-edited", "next"), Files.readAllLines(file));
+    }
+}
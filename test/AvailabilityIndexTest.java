@@ -0,0 +1,71 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityIndexTest {
+
+    @TempDir
+    Path dir;
+
+    private static final LocalDate FIRST = LocalDate.parse("2025-06-01");
+    private static final LocalDate LAST = LocalDate.parse("2031-12-31");
+
+    @Test
+    void deltasMatchARebuild() throws Exception {
+        DataRetriever r = new DataRetriever(TestData.copyTo(dir));
+        r.appendLeaveRequest("LR869,101,Tahunan,3/2/2031,3/4/2031," + LeaveHistory.Request.PENDING);
+        r.appendLeaveRequest("LR870,102,Tahunan,3/3/2031,3/6/2031," + LeaveHistory.Request.PENDING);
+        r.appendLeaveRequest("LR871,104,Sakit,3/4/2031,3/4/2031," + LeaveHistory.Request.REJECTED);
+        r.approveLeaveRequest("LR869");
+        r.cancelLeaveRequest("LR870");
+        r.cancelLeaveRequest("LR003");
+
+        HRDataSnapshot s = r.snapshot();
+        AvailabilityIndex rebuilt = AvailabilityIndex.build(s.employees, s.orgTree, s.leaveHistory);
+        for (LocalDate day = FIRST; !day.isAfter(LAST); day = day.plusDays(1))
+            assertEquals(rebuilt.away(day, day), s.availability.away(day, day), day.toString());
+        r.close();
+    }
+
+    @Test
+    void activeRequestsMarkTheirDays() throws Exception {
+        DataRetriever r = new DataRetriever(TestData.copyTo(dir));
+        HRDataSnapshot s = r.snapshot();
+        int budi = s.employees.ordinal("101");
+        LocalDate start = LocalDate.parse("2031-03-02");
+
+        r.appendLeaveRequest("LR869,101,Tahunan,3/2/2031,3/4/2031," + LeaveHistory.Request.PENDING);
+        AvailabilityIndex away = r.snapshot().availability;
+        assertTrue(away.away(start.plusDays(2), start.plusDays(2)).get(budi));
+        assertFalse(away.away(start.plusDays(3), start.plusDays(10)).get(budi));
+        assertTrue(away.away(start.minusDays(5), start).get(budi));
+
+        int teknologi = s.leaveAggregates.department("Teknologi");
+        assertTrue(away.department(teknologi).get(budi));
+        assertTrue(away.team(s.employees.ordinal("103")).get(budi));
+        assertFalse(away.team(s.employees.ordinal("104")).get(budi));
+
+        r.cancelLeaveRequest("LR869");
+        assertTrue(r.snapshot().availability.away(start, start.plusDays(2)).isEmpty());
+        r.close();
+    }
+
+    @Test
+    void mistypedSpansStopAtTheWindow() throws Exception {
+        DataRetriever r = new DataRetriever(TestData.copyTo(dir));
+        r.appendLeaveRequest("LR869,101,Tahunan,1/1/2025,1/1/2205," + LeaveHistory.Request.PENDING);
+        HRDataSnapshot s = r.snapshot();
+        int budi = s.employees.ordinal("101");
+        LocalDate today = LocalDate.parse("2026-10-18");
+
+        AvailabilityIndex index = AvailabilityIndex.build(s.employees, s.orgTree, s.leaveHistory, today);
+        assertTrue(index.away(today, today).get(budi));
+        assertTrue(index.away(today.plusYears(5), today.plusYears(5)).get(budi));
+        assertFalse(index.away(today.plusYears(5).plusDays(1), today.plusYears(6)).get(budi));
+        r.close();
+    }
+}
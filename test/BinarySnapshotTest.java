@@ -0,0 +1,73 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    /** Backdates every CSV, as if the data had been sitting there for an hour. */
+    private Path settledData() throws Exception {
+        TestData.copyTo(dir);
+        FileTime hourAgo = FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1));
+        try (DirectoryStream<Path> csvs = Files.newDirectoryStream(dir, "*.csv")) {
+            for (Path f : csvs) Files.setLastModifiedTime(f, hourAgo);
+        }
+        return dir;
+    }
+
+    @Test
+    void cachedOutsideTheDataDirectory() throws Exception {
+        BinarySnapshot.write(HRDataSnapshot.fromCsv(settledData()));
+        Path file = BinarySnapshot.file(dir);
+        assertTrue(Files.isRegularFile(file));
+        assertFalse(file.startsWith(dir));
+        assertNotEquals(file, BinarySnapshot.file(dir.resolve("other")));
+        try (DirectoryStream<Path> left = Files.newDirectoryStream(dir, "*.bin*")) {
+            assertFalse(left.iterator().hasNext());
+        }
+    }
+
+    @Test
+    void roundTripsAndFollowsAppends() throws Exception {
+        HRDataSnapshot csv = HRDataSnapshot.fromCsv(settledData());
+        BinarySnapshot.write(csv);
+        HRDataSnapshot bin = BinarySnapshot.read(dir, BinarySnapshot.file(dir));
+        assertNotNull(bin);
+        assertEquals(csv.employees.size(), bin.employees.size());
+        assertEquals(csv.leaveRequestsById.keySet(), bin.leaveRequestsById.keySet());
+
+        Files.writeString(dir.resolve("leave_requests.csv"), "LR900,101,Tahunan,1/5/2031,1/5/2031,Disetujui\n",
+                StandardOpenOption.APPEND);
+        HRDataSnapshot grown = BinarySnapshot.loadOrCompile(dir);
+        assertEquals(LeaveHistory.Request.APPROVED, grown.leaveRequest("LR900").status);
+    }
+
+    @Test
+    void touchedButUnchangedFileStaysValid() throws Exception {
+        BinarySnapshot.write(HRDataSnapshot.fromCsv(settledData()));
+        Files.setLastModifiedTime(dir.resolve("employees.csv"), FileTime.fromMillis(System.currentTimeMillis()));
+        assertNotNull(BinarySnapshot.read(dir, BinarySnapshot.file(dir)));
+    }
+
+    @Test
+    void sameSizeAndMtimeIsCheckedWhenRecent() throws Exception {
+        // fresh copies: their mtimes are within the filesystem resolution of the fingerprint
+        TestData.copyTo(dir);
+        BinarySnapshot.write(HRDataSnapshot.fromCsv(dir));
+        Path employees = dir.resolve("employees.csv");
+        FileTime mtime = Files.getLastModifiedTime(employees);
+        String before = Files.readString(employees);
+        Files.writeString(employees, before.replace("Budi Santoso", "Bude Santoso"));
+        Files.setLastModifiedTime(employees, mtime);
+
+        assertNull(BinarySnapshot.read(dir, BinarySnapshot.file(dir)));
+        assertTrue(BinarySnapshot.loadOrCompile(dir).nameIndex.find("bude").size() > 0);
+    }
+}
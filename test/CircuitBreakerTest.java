@@ -0,0 +1,65 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 3, 60_000);
+        for (int i = 0; i < 2; i++) {
+            breaker.acquire();
+            breaker.onFailure();
+        }
+        breaker.acquire();
+        breaker.onSuccess();   // resets the streak
+        for (int i = 0; i < 2; i++) {
+            breaker.acquire();
+            breaker.onFailure();
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.acquire();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(CircuitBreaker.OpenException.class, breaker::acquire);
+    }
+
+    @Test
+    void halfOpenLetsOneTrialThrough() {
+        CircuitBreaker breaker = opened();
+        breaker.acquire();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertThrows(CircuitBreaker.OpenException.class, breaker::acquire);
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.acquire();
+        breaker.acquire();
+    }
+
+    @Test
+    void failedTrialReopens() {
+        CircuitBreaker breaker = opened();
+        breaker.acquire();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void releasedTrialFreesTheSlot() {
+        CircuitBreaker breaker = opened();
+        breaker.acquire();
+        breaker.release();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.acquire();
+        assertThrows(CircuitBreaker.OpenException.class, breaker::acquire);
+    }
+
+    /** Open with a zero open period, so the next acquire starts a half-open trial. */
+    private static CircuitBreaker opened() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 1, 0);
+        breaker.acquire();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        return breaker;
+    }
+}
@@ -0,0 +1,57 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassificationCacheTest {
+
+    private static IntentClassifierGemini.ParsedIntent intent(String name) {
+        return new IntentClassifierGemini.ParsedIntent("get_manager", new HashMap<>(Map.of("name", name)));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        ClassificationCache cache = new ClassificationCache(2, 60_000);
+        cache.put("manajer budi", intent("budi"));
+        cache.put("manajer citra", intent("citra"));
+        assertNotNull(cache.get("manajer budi"));      // citra is now the eldest
+        cache.put("manajer dewi", intent("dewi"));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("manajer budi"));
+        assertNull(cache.get("manajer citra"));
+        assertNotNull(cache.get("manajer dewi"));
+    }
+
+    @Test
+    void expiredEntriesAreMissesAndDropped() {
+        ClassificationCache cache = new ClassificationCache(10, 0);
+        cache.put("manajer budi", intent("budi"));
+        assertEquals(1, cache.size());
+
+        assertNull(cache.get("manajer budi"));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void keysIgnoreCaseSpacingAndShortMonths() {
+        ClassificationCache cache = new ClassificationCache(10, 60_000);
+        cache.put("Cuti budi bulan  Agt", intent("budi"));
+        assertNotNull(cache.get("cuti budi bulan agustus"));
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    void fallbacksAreNotCachedAndHitsAreCopies() {
+        ClassificationCache cache = new ClassificationCache(10, 60_000);
+        cache.put("???", new IntentClassifierGemini.ParsedIntent("unknown", new HashMap<>()));
+        assertEquals(0, cache.size());
+
+        cache.put("manajer budi", intent("budi"));
+        cache.get("manajer budi").entities.put("name", "citra");
+        assertEquals("budi", cache.get("manajer budi").entities.get("name"));
+    }
+}
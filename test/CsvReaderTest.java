@@ -0,0 +1,73 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+
+    @TempDir
+    Path dir;
+
+    /** Records of {@code file} from {@code from}, header skipped; the returned offset is the last element. */
+    private static List<Object> read(Path file, long from, boolean completeOnly) throws Exception {
+        List<Object> out = new ArrayList<>();
+        long end = CsvReader.read(file, from, true, completeOnly, row -> {
+            List<String> fields = new ArrayList<>();
+            for (int i = 0; i < row.size(); i++) fields.add(row.get(i));
+            out.add(fields);
+        });
+        out.add(end);
+        return out;
+    }
+
+    private static List<String> fields(String line) {
+        List<String> out = new ArrayList<>();
+        CsvReader.parseLine(line, row -> {
+            for (int i = 0; i < row.size(); i++) out.add(row.get(i));
+        });
+        return out;
+    }
+
+    @Test
+    void formattedFieldsReadBack() {
+        List<String> values = List.of("LR1", "Tahunan, dibayar", "tab\there", "kata \"kutip\"", "dua\nbaris",
+                " spasi ", "", "Menunggu Persetujuan");
+        String line = CsvReader.format(values.toArray(new String[0]));
+        assertEquals(values, fields(line));
+        assertEquals("a,b,c", CsvReader.format("a", "b", "c"));
+    }
+
+    @Test
+    void readsQuotedFieldsAndCrlf() throws Exception {
+        Path file = dir.resolve("requests.csv");
+        Files.writeString(file, "id,tipe,catatan\r\n"
+                + "LR1, Tahunan ,\"kata \"\"kutip\"\", koma\"\r\n"
+                + "LR2\tSakit\t\"dua\r\nbaris\"\r\n"
+                + "LR3,Cuti Besar,\n", StandardCharsets.UTF_8);
+
+        List<Object> records = read(file, 0, false);
+        assertEquals(List.of(
+                List.of("LR1", "Tahunan", "kata \"kutip\", koma"),
+                List.of("LR2", "Sakit", "dua\r\nbaris"),
+                List.of("LR3", "Cuti Besar", ""),
+                Files.size(file)), records);
+    }
+
+    @Test
+    void completeOnlyLeavesAPartialLastRecordForLater() throws Exception {
+        Path file = dir.resolve("requests.csv");
+        String complete = "id,tipe\nLR1,Tahunan\r\n";
+        Files.writeString(file, complete + "LR2,\"Sak", StandardCharsets.UTF_8);
+
+        assertEquals(List.of(List.of("LR1", "Tahunan"), (long) complete.length()), read(file, 0, true));
+        assertEquals(List.of(List.of("LR1", "Tahunan"), List.of("LR2", "\"Sak"), Files.size(file)),
+                read(file, 0, false));
+
+        Files.writeString(file, "it\"\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        assertEquals(List.of(List.of("LR2", "Sakit"), Files.size(file)), read(file, complete.length(), true));
+    }
+}
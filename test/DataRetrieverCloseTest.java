@@ -0,0 +1,54 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataRetrieverCloseTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void closeWaitsForQueuedAppendsWithoutDeadlock() throws Exception {
+        DataRetriever r = new DataRetriever(TestData.copyTo(dir));
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> appends = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            String row = r.nextLeaveRequestId() + ",101,Tahunan,1/" + (i % 28 + 1) + "/2031,1/" + (i % 28 + 1) + "/2031,Menunggu Persetujuan";
+            appends.add(pool.submit(() -> {
+                r.appendLeaveRequest(row);
+                return null;
+            }));
+        }
+        assertTimeoutPreemptively(Duration.ofSeconds(10), r::close);
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        int written = 0;
+        for (Future<?> f : appends) {
+            try {
+                f.get();
+                written++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(IOException.class, e.getCause());
+            }
+        }
+        long rows = Files.readAllLines(dir.resolve("leave_requests.csv")).stream().filter(l -> l.contains("/2031")).count();
+        assertEquals(written, rows);
+    }
+
+    @Test
+    void writesFailAfterClose() throws IOException {
+        DataRetriever r = new DataRetriever(TestData.copyTo(dir));
+        r.close();
+        assertThrows(IOException.class, () -> r.appendLeaveRequest("LR900,101,Tahunan,1/5/2031,1/5/2031,Menunggu Persetujuan"));
+        assertThrows(IOException.class, () -> AppendWriter.await(r.writer(DataRetriever.PERFORMANCE_REVIEWS).append("x")));
+        assertFalse(Files.readString(dir.resolve("leave_requests.csv")).contains("LR900"));
+    }
+}
@@ -0,0 +1,49 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataRetrieverWatchTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void ignoresFilesTheSnapshotDoesNotLoad() throws Exception {
+        DataRetriever r = new DataRetriever(TestData.copyTo(dir));
+        HRDataSnapshot before = r.snapshot();
+        r.onDataChanged(Set.of(DataRetriever.PERFORMANCE_REVIEWS));
+        r.onDataChanged(Set.of("notes.csv"));
+        assertSame(before, r.snapshot());
+        r.onDataChanged(Set.of(DataRetriever.PERFORMANCE_REVIEWS, "employees.csv"));
+        assertNotSame(before, r.snapshot());
+        r.close();
+    }
+
+    @Test
+    void reloadKeepsRowsStillBeingWritten() throws Exception {
+        DataRetriever r = new DataRetriever(TestData.copyTo(dir));
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<String> ids = new ArrayList<>();
+        List<Future<?>> appends = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String id = r.nextLeaveRequestId();
+            ids.add(id);
+            String row = id + ",101,Tahunan,2/" + (i % 28 + 1) + "/2031,2/" + (i % 28 + 1) + "/2031,Menunggu Persetujuan";
+            appends.add(pool.submit(() -> {
+                r.appendLeaveRequest(row);
+                return null;
+            }));
+            if (i % 10 == 0) pool.submit(() -> r.onDataChanged(Set.of("employees.csv")));
+        }
+        for (Future<?> f : appends) f.get();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        for (String id : ids) assertNotNull(r.snapshot().leaveRequest(id), id);
+        r.close();
+    }
+}
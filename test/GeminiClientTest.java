@@ -0,0 +1,99 @@
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeminiClientTest {
+
+    private static final GeminiClient.RequestTemplate TEMPLATE = new GeminiClient.RequestTemplate("test");
+
+    private final Deque<Integer> statuses = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private HttpServer server;
+
+    /** Client against a local server answering with the queued statuses, then 503s. */
+    private GeminiClient client(Map<String, String> settings) throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            Integer status = statuses.poll();
+            byte[] body = (status != null && status == 200
+                    ? "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"ok\"}]}}]}" : "{}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status == null ? 503 : status, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        Map<String, String> previous = new HashMap<>();
+        settings.forEach((k, v) -> previous.put(k, System.setProperty(k, v)));
+        try {
+            return new GeminiClient("http://127.0.0.1:" + server.getAddress().getPort() + "/");
+        } finally {
+            previous.forEach((k, v) -> {
+                if (v == null) System.clearProperty(k);
+                else System.setProperty(k, v);
+            });
+        }
+    }
+
+    @AfterEach
+    void stop() {
+        if (server != null) server.stop(0);
+    }
+
+    @Test
+    void rejectedTrialDoesNotWedgeTheBreaker() throws Exception {
+        GeminiClient gemini = client(Map.of("hr.gemini.http", "1.1", "hr.gemini.maxRetries", "0",
+                "hr.gemini.breakerFailures", "1", "hr.gemini.breakerOpenMs", "0"));
+        statuses.addAll(List.of(503, 400, 200));
+        assertThrows(ExecutionException.class, () -> gemini.generate(TEMPLATE, "a").get());
+        assertEquals(CircuitBreaker.State.OPEN, gemini.getBreakerState());
+
+        // the half-open trial gets a 400: not the API's fault, but the slot must be freed
+        ExecutionException rejected = assertThrows(ExecutionException.class, () -> gemini.generate(TEMPLATE, "b").get());
+        assertInstanceOf(GeminiClient.ApiException.class, rejected.getCause());
+        assertEquals("ok", gemini.generate(TEMPLATE, "c").get());
+        assertEquals(CircuitBreaker.State.CLOSED, gemini.getBreakerState());
+    }
+
+    @Test
+    void noRetriesAfterTheDeadline() throws Exception {
+        GeminiClient gemini = client(Map.of("hr.gemini.http", "1.1", "hr.gemini.maxRetries", "20",
+                "hr.gemini.backoffMs", "100", "hr.gemini.deadlineMs", "400",
+                "hr.gemini.breakerFailures", "1000"));
+        assertThrows(ExecutionException.class, () -> gemini.generate(TEMPLATE, "a").get(5, TimeUnit.SECONDS));
+        int sent = requests.get();
+        Thread.sleep(1500);
+        assertEquals(sent, requests.get());
+    }
+
+    @Test
+    void requestBodyCarriesTheInstructionAndTheInput() {
+        String input = "ajukan cuti \"sakit\" budi\nlalu cek statusnya \\ café";
+        String prompt = IntentClassifierGemini.buildPrompt(input);
+        JSONObject body = new JSONObject(new String(
+                new GeminiClient.RequestTemplate(IntentClassifierGemini.SYSTEM_INSTRUCTION).body(prompt),
+                StandardCharsets.UTF_8));
+
+        assertEquals(IntentClassifierGemini.SYSTEM_INSTRUCTION,
+                body.getJSONObject("systemInstruction").getJSONArray("parts").getJSONObject(0).getString("text"));
+        assertEquals(prompt, body.getJSONArray("contents").getJSONObject(0)
+                .getJSONArray("parts").getJSONObject(0).getString("text"));
+    }
+
+    @Test
+    void systemInstructionIsAsciiAndNamesEveryIntent() {
+        String instruction = IntentClassifierGemini.SYSTEM_INSTRUCTION;
+        assertTrue(instruction.chars().allMatch(c -> c < 128));
+        for (String intent : ActionExecutor.INTENTS) assertTrue(instruction.contains(intent), intent);
+    }
+}
@@ -0,0 +1,101 @@
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntentClassifierGeminiBatchTest {
+
+    private static final List<String> INPUTS = List.of("xyzzy alfa", "xyzzy bravo", "xyzzy charlie");
+
+    private final AtomicInteger batchCalls = new AtomicInteger();
+    private final AtomicInteger singleCalls = new AtomicInteger();
+    private HttpServer server;
+
+    /**
+     * Stub answering a numbered batch with {@code batchReply} applied to its inputs in
+     * order, and a single input with an object naming it.
+     */
+    private IntentClassifierGemini classifier(Function<List<String>, JSONArray> batchReply) throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            String prompt = new JSONObject(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8))
+                    .getJSONArray("contents").getJSONObject(0).getJSONArray("parts").getJSONObject(0).getString("text");
+            List<String> asked = new ArrayList<>();
+            for (String word : List.of("alfa", "bravo", "charlie")) if (prompt.contains(word)) asked.add(word);
+            String text;
+            if (prompt.startsWith("1. ")) {
+                batchCalls.incrementAndGet();
+                text = batchReply.apply(asked).toString();
+            } else {
+                singleCalls.incrementAndGet();
+                text = named(asked.get(0)).toString();
+            }
+            byte[] body = new JSONObject().put("candidates", new JSONArray().put(new JSONObject()
+                    .put("content", new JSONObject().put("parts", new JSONArray().put(new JSONObject().put("text", text))))))
+                    .toString().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        return new IntentClassifierGemini("http://127.0.0.1:" + server.getAddress().getPort() + "/");
+    }
+
+    private static JSONObject named(String word) {
+        return new JSONObject().put("intent", "get_employee_info").put("name", word);
+    }
+
+    private static List<String> names(List<IntentClassifierGemini.ParsedIntent> parsed) {
+        return parsed.stream().map(p -> p.entities.get("name")).toList();
+    }
+
+    @AfterEach
+    void stop() {
+        if (server != null) server.stop(0);
+    }
+
+    @Test
+    void repliesAreMatchedByPosition() throws Exception {
+        IntentClassifierGemini classifier = classifier(asked -> {
+            JSONArray reply = new JSONArray();
+            asked.forEach(word -> reply.put(named(word)));
+            return reply;
+        });
+        assertEquals(List.of("alfa", "bravo", "charlie"), names(classifier.parseBatch(INPUTS, 10)));
+        assertEquals(1, batchCalls.get());
+        assertEquals(0, singleCalls.get());
+    }
+
+    @Test
+    void shortReplyFallsBackToSingleCalls() throws Exception {
+        // the model skipped the first input: by position every answer would be off by one
+        IntentClassifierGemini classifier = classifier(asked -> {
+            JSONArray reply = new JSONArray();
+            asked.subList(1, asked.size()).forEach(word -> reply.put(named(word)));
+            return reply;
+        });
+        assertEquals(List.of("alfa", "bravo", "charlie"), names(classifier.parseBatch(INPUTS, 10)));
+        assertEquals(1, batchCalls.get());
+        assertEquals(3, singleCalls.get());
+    }
+
+    @Test
+    void nonObjectElementIsRetriedAlone() throws Exception {
+        IntentClassifierGemini classifier = classifier(asked -> {
+            JSONArray reply = new JSONArray();
+            asked.forEach(word -> reply.put(word.equals("bravo") ? "?" : named(word)));
+            return reply;
+        });
+        assertEquals(List.of("alfa", "bravo", "charlie"), names(classifier.parseBatch(INPUTS, 10)));
+        assertEquals(1, singleCalls.get());
+    }
+}
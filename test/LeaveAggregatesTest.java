@@ -0,0 +1,71 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaveAggregatesTest {
+
+    @TempDir
+    Path dir;
+
+    /** Every request count of {@code actual} against {@code expected}, per department, type and team. */
+    private static void assertSameCounts(HRDataSnapshot s, LeaveAggregates expected, LeaveAggregates actual) {
+        for (int d = 0; d < expected.departments(); d++) {
+            for (int t = -1; t < expected.types(); t++) {
+                String cell = expected.departmentName(d) + "/" + t;
+                assertEquals(expected.pending(d, t), actual.pending(d, t), cell);
+                assertEquals(expected.pendingDays(d, t), actual.pendingDays(d, t), cell);
+                assertEquals(expected.approved(d, t), actual.approved(d, t), cell);
+                assertEquals(expected.approvedDays(d, t), actual.approvedDays(d, t), cell);
+            }
+        }
+        for (int e = 0; e < s.employees.size(); e++) {
+            assertEquals(expected.teamPending(e), actual.teamPending(e), s.employees.id(e));
+            assertEquals(expected.teamPendingDays(e), actual.teamPendingDays(e), s.employees.id(e));
+        }
+    }
+
+    @Test
+    void deltasMatchARebuild() throws Exception {
+        DataRetriever r = new DataRetriever(TestData.copyTo(dir));
+        r.appendLeaveRequest("LR869,101,Tahunan,3/2/2031,3/4/2031," + LeaveHistory.Request.PENDING);
+        r.appendLeaveRequest("LR870,102,Melahirkan,4/1/2031,4/10/2031," + LeaveHistory.Request.PENDING);
+        r.appendLeaveRequest("LR871,104,Sakit,5/5/2031,5/5/2031," + LeaveHistory.Request.APPROVED);
+        r.approveLeaveRequest("LR869");
+        r.cancelLeaveRequest("LR003");
+        r.cancelLeaveRequest("LR870");
+
+        HRDataSnapshot s = r.snapshot();
+        assertSameCounts(s, LeaveAggregates.build(s.employees, s.orgTree, s.leaveHistory), s.leaveAggregates);
+
+        // and from the log on disk
+        r.reload();
+        HRDataSnapshot reloaded = r.snapshot();
+        assertSameCounts(reloaded, reloaded.leaveAggregates, s.leaveAggregates);
+        r.close();
+    }
+
+    @Test
+    void pendingRequestsCountUpTheChainOfCommand() throws Exception {
+        DataRetriever r = new DataRetriever(TestData.copyTo(dir));
+        HRDataSnapshot before = r.snapshot();
+        int budi = before.employees.ordinal("101");
+        int manager = before.employees.ordinal("103");
+        int teknologi = before.leaveAggregates.department("Teknologi");
+
+        r.appendLeaveRequest("LR869,101,Tahunan,3/2/2031,3/4/2031," + LeaveHistory.Request.PENDING);
+        LeaveAggregates after = r.snapshot().leaveAggregates;
+        assertEquals(before.leaveAggregates.teamPending(budi) + 1, after.teamPending(budi));
+        assertEquals(before.leaveAggregates.teamPending(manager) + 1, after.teamPending(manager));
+        assertEquals(before.leaveAggregates.teamPendingDays(manager) + 3, after.teamPendingDays(manager));
+        assertEquals(before.leaveAggregates.pending(teknologi, -1) + 1, after.pending(teknologi, -1));
+
+        r.approveLeaveRequest("LR869");
+        LeaveAggregates approved = r.snapshot().leaveAggregates;
+        assertEquals(before.leaveAggregates.teamPending(manager), approved.teamPending(manager));
+        assertEquals(before.leaveAggregates.approvedDays(teknologi, -1) + 3, approved.approvedDays(teknologi, -1));
+        r.close();
+    }
+}
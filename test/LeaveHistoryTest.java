@@ -0,0 +1,77 @@
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaveHistoryTest {
+
+    private static LeaveHistory.Request request(String id, String start, String end, String status) {
+        return new LeaveHistory.Request(id, "101", "Tahunan", LocalDate.parse(start), LocalDate.parse(end), status);
+    }
+
+    private static List<String> ids(List<LeaveHistory.Request> requests) {
+        return requests.stream().map(r -> r.id).toList();
+    }
+
+    private static final LeaveHistory HISTORY = LeaveHistory.EMPTY.with(List.of(
+            request("LR1", "2025-03-10", "2025-03-12", LeaveHistory.Request.APPROVED),
+            request("LR2", "2025-01-01", "2025-12-31", LeaveHistory.Request.REJECTED),   // long, submitted late
+            request("LR3", "2025-03-12", "2025-03-12", LeaveHistory.Request.PENDING),
+            request("LR4", "2025-06-01", "2025-06-05", LeaveHistory.Request.PENDING)));
+
+    @Test
+    void overlapCountsBothEndDays() {
+        assertEquals(List.of("LR2", "LR1", "LR3"),
+                ids(HISTORY.overlapping(LocalDate.parse("2025-03-12"), LocalDate.parse("2025-03-12"))));
+        assertEquals(List.of("LR2", "LR4"),
+                ids(HISTORY.overlapping(LocalDate.parse("2025-06-05"), LocalDate.parse("2025-06-20"))));
+        assertEquals(List.of("LR2"),
+                ids(HISTORY.overlapping(LocalDate.parse("2025-03-13"), LocalDate.parse("2025-05-31"))));
+        assertEquals(List.of(),
+                ids(HISTORY.overlapping(LocalDate.parse("2026-01-01"), LocalDate.parse("2026-01-31"))));
+    }
+
+    @Test
+    void firstOverlapAppliesTheFilterInStartOrder() {
+        LeaveHistory.Request active = HISTORY.firstOverlap(LocalDate.parse("2025-03-01"), LocalDate.parse("2025-03-31"),
+                LeaveHistory.Request::isActive);
+        assertEquals("LR1", active.id);
+        assertNull(HISTORY.firstOverlap(LocalDate.parse("2025-07-01"), LocalDate.parse("2025-07-31"),
+                LeaveHistory.Request::isActive));
+    }
+
+    @Test
+    void matchesABruteForceScan() {
+        Random random = new Random(42);
+        List<LeaveHistory.Request> requests = new ArrayList<>();
+        LocalDate base = LocalDate.parse("2025-01-01");
+        for (int i = 0; i < 200; i++) {
+            LocalDate start = base.plusDays(random.nextInt(365));
+            requests.add(new LeaveHistory.Request("LR" + i, "101", "Tahunan", start,
+                    start.plusDays(random.nextInt(i % 20 == 0 ? 120 : 5)), LeaveHistory.Request.PENDING));
+        }
+        LeaveHistory history = LeaveHistory.EMPTY.with(requests);
+        for (int q = 0; q < 500; q++) {
+            LocalDate from = base.plusDays(random.nextInt(400) - 20);
+            LocalDate to = from.plusDays(random.nextInt(10));
+            Set<String> expected = new HashSet<>();
+            for (LeaveHistory.Request r : requests)
+                if (!r.end.isBefore(from) && !r.start.isAfter(to)) expected.add(r.id);
+            assertEquals(expected, new HashSet<>(ids(history.overlapping(from, to))), from + ".." + to);
+        }
+    }
+
+    @Test
+    void statusChangeReplacesTheRequestInPlace() {
+        LeaveHistory updated = HISTORY.with(List.of(request("LR1", "2025-03-10", "2025-03-12", LeaveHistory.Request.CANCELLED)));
+        assertEquals(4, updated.size());
+        assertEquals(LeaveHistory.Request.CANCELLED, updated.get(0).status);
+        assertEquals("LR4", updated.latest().id);
+        assertEquals(List.of("LR2", "LR1", "LR3"),
+                ids(updated.overlapping(LocalDate.parse("2025-03-12"), LocalDate.parse("2025-03-12"))));
+        assertEquals("LR3", updated.firstOverlap(LocalDate.parse("2025-03-12"), LocalDate.parse("2025-03-12"),
+                LeaveHistory.Request::isActive).id);
+    }
+}
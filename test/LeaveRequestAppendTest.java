@@ -0,0 +1,44 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaveRequestAppendTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void oddLeaveTypesKeepTheirColumns() throws Exception {
+        DataRetriever r = new DataRetriever(TestData.copyTo(dir));
+        String type = "Tahunan, \"khusus\"\tdibayar";
+        assertNull(r.appendLeaveRequestIfFree("101", type, LocalDate.parse("2031-03-02"), LocalDate.parse("2031-03-04")));
+        r.appendLeaveRequest("LR950,102,Sakit,4/1/2031,4/1/2031," + LeaveHistory.Request.PENDING);
+
+        r.reload();
+        LeaveHistory.Request odd = r.snapshot().leaveHistoryOf("101").latest();
+        assertEquals(type, odd.type);
+        assertEquals(LocalDate.parse("2031-03-04"), odd.end);
+        assertEquals(LeaveHistory.Request.PENDING, odd.status);
+        assertNotNull(r.snapshot().leaveRequest("LR950"));
+        r.close();
+    }
+
+    @Test
+    void rejectedRequestsUseNoId() throws Exception {
+        DataRetriever r = new DataRetriever(TestData.copyTo(dir));
+        LocalDate day = LocalDate.parse("2031-03-02");
+        assertNull(r.appendLeaveRequestIfFree("101", "Tahunan", day, day));
+        String first = r.snapshot().leaveHistoryOf("101").latest().id;
+
+        assertNotNull(r.appendLeaveRequestIfFree("101", "Tahunan", day, day));
+        assertNull(r.appendLeaveRequestIfFree("101", "Tahunan", day.plusDays(1), day.plusDays(1)));
+        String second = r.snapshot().leaveHistoryOf("101").latest().id;
+        assertEquals(IdAllocator.number(IdAllocator.LEAVE_PREFIX, first) + 1,
+                IdAllocator.number(IdAllocator.LEAVE_PREFIX, second));
+        r.close();
+    }
+}
@@ -0,0 +1,64 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaveRequestTailTest {
+
+    @TempDir
+    Path dir;
+
+    private static void appendExternally(Path file, String text) throws Exception {
+        Files.writeString(file, text, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+
+    @Test
+    void picksUpRowsOtherProcessesAppend() throws Exception {
+        DataRetriever r = new DataRetriever(TestData.copyTo(dir));
+        Path log = dir.resolve(HRDataSnapshot.LEAVE_REQUESTS);
+        r.appendLeaveRequest("LR900,101,Sakit,1/5/2031,1/5/2031," + LeaveHistory.Request.PENDING);
+
+        appendExternally(log, "LR901,102,Tahunan,1/6/2031,1/7/2031," + LeaveHistory.Request.PENDING + "\n"
+                + "LR900,101,Sakit,1/5/2031,1/5/2031,Disetujui\n");
+        r.refreshLeaveRequests();
+        assertEquals(LeaveHistory.Request.PENDING, r.snapshot().leaveRequest("LR901").status);
+        assertEquals("Disetujui", r.snapshot().leaveRequest("LR900").status);
+        assertEquals("LR902", r.nextLeaveRequestId());
+        r.close();
+    }
+
+    @Test
+    void waitsForTheRestOfAPartialRow() throws Exception {
+        DataRetriever r = new DataRetriever(TestData.copyTo(dir));
+        Path log = dir.resolve(HRDataSnapshot.LEAVE_REQUESTS);
+
+        appendExternally(log, "LR900,101,Sakit,1/5/2031,1/5/2031,Menunggu");
+        r.refreshLeaveRequests();
+        assertNull(r.snapshot().leaveRequest("LR900"));
+
+        appendExternally(log, " Persetujuan\r\n");
+        r.refreshLeaveRequests();
+        assertEquals(LeaveHistory.Request.PENDING, r.snapshot().leaveRequest("LR900").status);
+        r.close();
+    }
+
+    @Test
+    void rereadsAFileThatShrank() throws Exception {
+        DataRetriever r = new DataRetriever(TestData.copyTo(dir));
+        Path log = dir.resolve(HRDataSnapshot.LEAVE_REQUESTS);
+        List<String> lines = Files.readAllLines(log, StandardCharsets.UTF_8);
+        String kept = lines.get(1).substring(0, lines.get(1).indexOf(','));
+        String dropped = lines.get(2).substring(0, lines.get(2).indexOf(','));
+        assertNotNull(r.snapshot().leaveRequest(dropped));
+
+        Files.write(log, lines.subList(0, 2), StandardCharsets.UTF_8);
+        r.refreshLeaveRequests();
+        assertNotNull(r.snapshot().leaveRequest(kept));
+        assertNull(r.snapshot().leaveRequest(dropped));
+        r.close();
+    }
+}
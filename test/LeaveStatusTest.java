@@ -0,0 +1,37 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaveStatusTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void approvingAnOlderRequestKeepsTheLatestStatus() throws Exception {
+        DataRetriever r = new DataRetriever(TestData.copyTo(dir));
+        r.appendLeaveRequest("LR869,101,Tahunan,3/2/2031,3/4/2031," + LeaveHistory.Request.PENDING);
+        assertTrue(r.approveLeaveRequest("LR395").startsWith("KONFIRMASI"));
+
+        String status = r.getLeaveRequestStatus("budi");
+        assertTrue(status.contains(LeaveHistory.Request.PENDING), status);
+
+        // the same after re-reading the log from disk
+        r.reload();
+        assertTrue(r.getLeaveRequestStatus("budi").contains(LeaveHistory.Request.PENDING));
+        assertEquals(LeaveHistory.Request.APPROVED, r.snapshot().leaveRequest("lr395").status);
+        r.close();
+    }
+
+    @Test
+    void changingTheLatestRequestIsReported() throws Exception {
+        DataRetriever r = new DataRetriever(TestData.copyTo(dir));
+        r.appendLeaveRequest("LR869,101,Tahunan,3/2/2031,3/4/2031," + LeaveHistory.Request.PENDING);
+        r.cancelLeaveRequest("LR869");
+        assertTrue(r.getLeaveRequestStatus("budi").contains(LeaveHistory.Request.CANCELLED));
+        r.close();
+    }
+}
@@ -0,0 +1,64 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalIntentClassifierTest {
+
+    private static final Set<String> EMPLOYEES = Set.of("budi", "rina", "eko", "santi");
+    private final LocalIntentClassifier classifier = new LocalIntentClassifier(EMPLOYEES::contains);
+
+    @Test
+    void knownNamesAreAnsweredLocally() {
+        IntentClassifierGemini.ParsedIntent p = classifier.classify("Tolong siapa manajer budi?");
+        assertEquals("get_manager", p.intent);
+        assertEquals("budi", p.entities.get("name"));
+    }
+
+    @Test
+    void unknownNamesAreLeftToTheLlm() {
+        assertNull(classifier.classify("info teknologi"));
+        assertNull(classifier.classify("info karyawan baru"));
+        // but still beat "unknown" when the LLM is down
+        IntentClassifierGemini.ParsedIntent degraded =
+                classifier.classify("info teknologi", LocalIntentClassifier.DEGRADED_THRESHOLD);
+        assertEquals("get_employee_info", degraded.intent);
+    }
+
+    @Test
+    void compoundRepeatsTheRequestForBareNames() {
+        IntentClassifierGemini.ParsedIntent p = classifier.classify("sisa cuti tahunan budi, rina dan eko");
+        assertTrue(p.isCompound());
+        assertEquals(3, p.parts.size());
+        for (IntentClassifierGemini.ParsedIntent part : p.parts) {
+            assertEquals("get_leave_balance", part.intent);
+            assertEquals("tahunan", part.entities.get("type"));
+        }
+        assertNull(classifier.classify("sisa cuti budi dan teknologi"));
+    }
+
+    @Test
+    void entitiesAreNormalized() {
+        IntentClassifierGemini.ParsedIntent expense = classifier.classify("ajukan expense rina makan rp 150.000");
+        assertEquals("150000", expense.entities.get("amount"));
+        IntentClassifierGemini.ParsedIntent leave =
+                classifier.classify("ajukan cuti sakit untuk budi dari 2031-10-03 sampai 2031-10-05.");
+        assertEquals("apply_leave", leave.intent);
+        assertEquals("2031-10-05", leave.entities.get("end_date"));
+        assertEquals("sakit", leave.entities.get("type"));
+    }
+
+    @Test
+    void nameFragmentsAreNotKnownNames(@TempDir Path dir) throws Exception {
+        DataRetriever retriever = new DataRetriever(TestData.copyTo(dir));
+        LocalIntentClassifier checked = new LocalIntentClassifier(retriever::isKnownName);
+        assertEquals("get_manager", checked.classify("siapa manajer budi santoso").intent);
+        assertEquals("get_manager", checked.classify("siapa manajer santoso").intent);
+        assertNull(checked.classify("siapa manajer bu"));
+        assertNull(checked.classify("siapa manajer an"));
+        retriever.close();
+    }
+}
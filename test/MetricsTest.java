@@ -0,0 +1,54 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void stagesAreRecordedPerIntentAndRolledUp() {
+        Metrics.get().recordNanos("metrics_test", "get_manager", 2_000_000);
+        Metrics.get().recordNanos("metrics_test", null, 4_000_000);
+
+        Map<String, String> stages = Metrics.get().getStageLatencies();
+        assertTrue(stages.get("metrics_test [get_manager]").startsWith("n=1 "));
+        assertTrue(stages.get("metrics_test [*]").startsWith("n=2 "));
+    }
+
+    @Test
+    void madeUpIntentsShareOneKey() throws Exception {
+        ActionExecutor executor = new ActionExecutor(new DataRetriever(TestData.copyTo(dir)));
+        executor.execute("get_manajer_budi", Map.of());
+        executor.execute("ask_anything", Map.of());
+
+        assertFalse(Metrics.get().getStageLatencies().keySet().stream()
+                .anyMatch(k -> k.contains("get_manajer_budi") || k.contains("ask_anything")));
+        assertTrue(Metrics.get().getStageLatencies().containsKey("execute [unknown]"));
+        assertEquals("get_manager", ActionExecutor.metricIntent("get_manager"));
+        executor.retriever().close();
+    }
+
+    @Test
+    void percentilesStayWithinTheBucketError() {
+        Metrics.Histogram h = new Metrics.Histogram();
+        Random random = new Random(7);
+        long[] values = new long[10_000];
+        for (int i = 0; i < values.length; i++) h.record(values[i] = 1 + random.nextInt(1_000_000));
+        Arrays.sort(values);
+
+        for (double p : new double[]{50, 90, 99}) {
+            long exact = values[(int) Math.ceil(values.length * p / 100) - 1];
+            long reported = h.percentile(p);
+            assertTrue(reported >= exact && reported <= exact * 1.125 + 1, p + ": " + reported + " vs " + exact);
+        }
+        assertEquals(values.length, h.count());
+    }
+}
@@ -0,0 +1,50 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameIndexTest {
+
+    private static final List<String> NAMES = List.of(
+            "Budi Santoso", "Rina Wijaya", "Santi Putri", "Budiman", "Ani Budiarti", "Sabudi");
+
+    @Test
+    void ranksExactWordPrefixThenSubstring() {
+        NameIndex index = new NameIndex(NAMES);
+        assertEquals(List.of("budi santoso", "budiman", "ani budiarti", "sabudi"), index.find("Budi"));
+        assertEquals("santi putri", index.best("santi putri"));
+        assertNull(index.best("joko"));
+        assertEquals(List.of(), index.find("  "));
+    }
+
+    @Test
+    void findsTheSameNamesAsAScan() {
+        NameIndex index = new NameIndex(NAMES);
+        for (String name : NAMES) {
+            String lower = name.toLowerCase(Locale.ROOT);
+            for (int i = 0; i < lower.length(); i++) {
+                for (int j = i + 1; j <= lower.length(); j++) {
+                    String q = lower.substring(i, j);
+                    if (q.isBlank()) continue;
+                    Set<String> expected = new TreeSet<>();
+                    for (String n : NAMES)
+                        if (n.toLowerCase(Locale.ROOT).contains(q.trim())) expected.add(n.toLowerCase(Locale.ROOT));
+                    assertEquals(expected, new TreeSet<>(index.find(q)), q);
+                }
+            }
+        }
+    }
+
+    @Test
+    void wholeWordsOnlyForContainsWords() {
+        NameIndex index = new NameIndex(NAMES);
+        assertTrue(index.containsWords("Budi"));
+        assertTrue(index.containsWords("budi santoso"));
+        assertTrue(index.containsWords("putri"));
+        assertFalse(index.containsWords("bu"));
+        assertFalse(index.containsWords("di s"));
+        assertFalse(index.containsWords("budia"));
+        assertFalse(index.containsWords(""));
+    }
+}
@@ -0,0 +1,48 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrgTreeTest {
+
+    /** 1 → 2 → {3, 4}, 4 → 5; 6 and 7 manage each other; 8 names an unknown manager. */
+    private static OrgTree tree() {
+        EmployeeTable.Builder b = new EmployeeTable.Builder();
+        String[][] rows = {{"1", ""}, {"2", "1"}, {"3", "2"}, {"4", "2"}, {"5", "4"}, {"6", "7"}, {"7", "6"}, {"8", "99"}};
+        for (String[] r : rows)
+            b.addEmployee(r[0], "e" + r[0], r[0] + "@x", "Staff", "Umum", r[1], "1/1/2024", "Aktif");
+        return new OrgTree(b.build());
+    }
+
+    @Test
+    void reportingLineUsesTourIntervals() {
+        OrgTree t = tree();
+        assertEquals(3, t.levelsBelow("5", "1"));
+        assertEquals(1, t.levelsBelow("3", "2"));
+        assertEquals(-1, t.levelsBelow("3", "4"));
+        assertEquals(-1, t.levelsBelow("2", "2"));
+        assertEquals(-1, t.levelsBelow("1", "5"));
+        assertEquals(List.of("2", "1"), t.chainOfCommand("4"));
+    }
+
+    @Test
+    void teamQueries() {
+        OrgTree t = tree();
+        assertEquals(List.of("3", "4", "5"), t.subordinates("2"));
+        assertEquals(2, t.directReportCount("2"));
+        assertEquals(4, t.transitiveReportCount("1"));
+        assertEquals(0, t.transitiveReportCount("5"));
+        assertEquals(3, t.depth("5"));
+    }
+
+    @Test
+    void cyclesAndUnknownManagersBecomeRoots() {
+        OrgTree t = tree();
+        // one edge of the 6 ⇄ 7 cycle is cut: exactly one of them is a root
+        assertEquals(1, t.depth("6") + t.depth("7"));
+        assertEquals(0, t.depth("8"));
+        assertEquals(List.of(), t.chainOfCommand("8"));
+        assertEquals(-1, t.depth("nobody"));
+    }
+}
@@ -0,0 +1,41 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private static void assertShed(CompletableFuture<Void> call) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> call.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RateLimiter.ShedException.class, e.getCause());
+    }
+
+    @Test
+    void queuesUpToTheLimitThenSheds() throws Exception {
+        RateLimiter limiter = new RateLimiter("test", 600, 1, 1, 5_000);   // a token every 100 ms
+        assertTrue(limiter.acquire().isDone());
+
+        CompletableFuture<Void> queued = limiter.acquire();
+        assertFalse(queued.isDone());
+        assertEquals(1, limiter.queueDepth());
+        assertShed(limiter.acquire());
+
+        queued.get(2, TimeUnit.SECONDS);
+        assertEquals(0, limiter.queueDepth());
+    }
+
+    @Test
+    void shedsCallsThatWouldWaitTooLong() throws Exception {
+        RateLimiter limiter = new RateLimiter("test", 1, 1, 10, 100);
+        limiter.acquire().get();
+        assertShed(limiter.acquire());
+        assertEquals(0, limiter.queueDepth());
+    }
+
+    @Test
+    void zeroRateDisablesLimiting() {
+        RateLimiter limiter = new RateLimiter("test", 0, 1, 0, 0);
+        for (int i = 0; i < 100; i++) assertTrue(limiter.acquire().isDone());
+    }
+}
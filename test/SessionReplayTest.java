@@ -0,0 +1,59 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionReplayTest {
+
+    @TempDir
+    Path dir;
+
+    private static IntentClassifierGemini.ParsedIntent intent(String intent, String name) {
+        return new IntentClassifierGemini.ParsedIntent(intent, new HashMap<>(Map.of("name", name)));
+    }
+
+    @Test
+    void recordingsReadBackAndDamagedLinesAreSkipped() throws Exception {
+        Path file = dir.resolve("session.jsonl");
+        var compound = IntentClassifierGemini.ParsedIntent.of(
+                List.of(intent("get_employee_info", "budi"), intent("get_manager", "budi")));
+        try (SessionRecorder recorder = new SessionRecorder(file)) {
+            recorder.record(null, "info budi lalu siapa manajernya", compound, "dua\nbaris", 2_000_000, 300_000);
+            recorder.record("acme", "sisa cuti \"rina\"", intent("get_leave_balance", "rina"), "8 hari", 0, 0);
+        }
+        Files.writeString(file, "{\"in\":\"terpotong\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        List<SessionRecorder.Entry> entries = SessionRecorder.read(file);
+        assertEquals(2, entries.size());
+        SessionRecorder.Entry first = entries.get(0);
+        assertEquals("info budi lalu siapa manajernya", first.input);
+        assertNull(first.tenant);
+        assertTrue(compound.toJson().similar(first.parsed.toJson()));
+        assertEquals("dua\nbaris", first.result);
+        assertEquals(2000, first.classifyMicros);
+        assertEquals("acme", entries.get(1).tenant);
+        assertEquals("sisa cuti \"rina\"", entries.get(1).input);
+    }
+
+    @Test
+    void stubRepliesWithRecordedClassifications() throws Exception {
+        var recorded = intent("get_manager", "santi");
+        var compound = IntentClassifierGemini.ParsedIntent.of(
+                List.of(intent("get_employee_info", "rina"), intent("get_manager", "rina")));
+        StubGeminiServer stub = new StubGeminiServer(0).withAnswers(Map.of(
+                "tolong \"cek\" dong", recorded,
+                "yang kemarin itu ya", compound)).start();
+        try {
+            IntentClassifierGemini clf = new IntentClassifierGemini(stub.getEndpoint());
+            assertTrue(recorded.toJson().similar(clf.parse("tolong \"cek\" dong").toJson()));
+            assertTrue(compound.toJson().similar(clf.parse("yang kemarin itu ya").toJson()));
+            assertTrue(stub.getRequestCount() >= 2);
+        } finally {
+            stub.stop();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpeculationTest {
+
+    @TempDir
+    Path dir;
+
+    /** Waits for the prerendered answer to {@code intent} for {@code name}. */
+    private static String prerendered(Speculation s, String intent, String name, DataRetriever r) throws Exception {
+        for (int i = 0; i < 500; i++) {
+            String text = s.answer(intent, Map.of("name", name), r.snapshot());
+            if (text != null) return text;
+            Thread.sleep(10);
+        }
+        return fail("no prerendered answer for " + intent);
+    }
+
+    @Test
+    void answersFromTheSnapshotItWasRenderedFrom() throws Exception {
+        DataRetriever r = new DataRetriever(TestData.copyTo(dir));
+        ActionExecutor executor = new ActionExecutor(r);
+        Speculation speculation = executor.speculate("cek status cuti budi");
+
+        String status = prerendered(speculation, "check_leave_status", "budi", r);
+        assertEquals(r.getLeaveRequestStatus("budi"), status);
+        long hits = Metrics.get().count("prefetch.hit");
+        assertEquals(status, executor.execute("check_leave_status", Map.of("name", "budi"), speculation));
+        assertEquals(hits + 1, Metrics.get().count("prefetch.hit"));
+        r.close();
+    }
+
+    @Test
+    void dataChangesMakeItStale() throws Exception {
+        DataRetriever r = new DataRetriever(TestData.copyTo(dir));
+        ActionExecutor executor = new ActionExecutor(r);
+        Speculation speculation = executor.speculate("cek status cuti budi");
+        String before = prerendered(speculation, "check_leave_status", "budi", r);
+
+        r.appendLeaveRequest("LR950,101,Sakit,4/1/2031,4/1/2031,Dibatalkan");
+        long stale = Metrics.get().count("prefetch.stale");
+        String after = executor.execute("check_leave_status", Map.of("name", "budi"), speculation);
+        assertEquals(stale + 1, Metrics.get().count("prefetch.stale"));
+        assertNotEquals(before, after);
+        assertTrue(after.contains("Dibatalkan"), after);
+        r.close();
+    }
+
+    @Test
+    void otherEntitiesAreNotServed() throws Exception {
+        DataRetriever r = new DataRetriever(TestData.copyTo(dir));
+        ActionExecutor executor = new ActionExecutor(r);
+        Speculation speculation = executor.speculate("sisa cuti sakit budi");
+        prerendered(speculation, "get_leave_balance", "budi", r);
+
+        assertNull(speculation.answer("get_leave_balance", Map.of("name", "budi", "type", "sakit"), r.snapshot()));
+        assertNull(speculation.answer("get_manager", Map.of("name", "budi"), r.snapshot()));
+        r.close();
+    }
+}
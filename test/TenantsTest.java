@@ -0,0 +1,55 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TenantsTest {
+
+    @TempDir
+    Path root;
+
+    private Tenants tenants() throws IOException {
+        for (String name : new String[]{"alpha", "beta"})
+            TestData.copyTo(Files.createDirectory(root.resolve(name)));
+        // a one-byte budget keeps only the most recently loaded tenant resident
+        return new Tenants(null, root, 1, false);
+    }
+
+    @Test
+    void evictedTenantStaysOpenUntilItsLeaseIsReleased() throws IOException {
+        Tenants tenants = tenants();
+        Tenants.Lease alpha = tenants.acquire("alpha");
+        DataRetriever retriever = alpha.executor().retriever();
+        tenants.acquire("beta").close();
+        assertEquals(java.util.List.of("beta"), tenants.resident());
+
+        // still usable by the request holding it
+        retriever.appendLeaveRequest("LR900,101,Tahunan,1/5/2031,1/5/2031,Menunggu Persetujuan");
+        alpha.close();
+        assertThrows(IOException.class,
+                () -> retriever.appendLeaveRequest("LR901,101,Tahunan,1/6/2031,1/6/2031,Menunggu Persetujuan"));
+    }
+
+    @Test
+    void reacquiringADrainingTenantRevivesTheSameInstance() throws IOException {
+        Tenants tenants = tenants();
+        Tenants.Lease first = tenants.acquire("alpha");
+        tenants.acquire("beta").close();
+        try (Tenants.Lease second = tenants.acquire("alpha")) {
+            assertSame(first.executor(), second.executor());
+            first.close();
+            // the revived tenant is resident again, so releasing the old lease does not close it
+            second.executor().retriever().appendLeaveRequest("LR900,101,Tahunan,1/5/2031,1/5/2031,Menunggu Persetujuan");
+        }
+    }
+
+    @Test
+    void unknownTenantIsRejected() throws IOException {
+        Tenants tenants = tenants();
+        assertThrows(IllegalArgumentException.class, () -> tenants.acquire("gamma"));
+        assertThrows(IllegalArgumentException.class, () -> tenants.acquire("../alpha"));
+    }
+}
@@ -0,0 +1,21 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.stream.Stream;
+
+/** Copies of the sample data directory, so tests can append to it. */
+final class TestData {
+
+    static final Path SAMPLE = Paths.get("data");
+
+    private TestData() {
+    }
+
+    /** Copies the sample CSV files into {@code dir} and returns it. */
+    static Path copyTo(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(SAMPLE)) {
+            for (Path f : (Iterable<Path>) files.filter(p -> p.toString().endsWith(".csv"))::iterator)
+                Files.copy(f, dir.resolve(f.getFileName()));
+        }
+        return dir;
+    }
+}